@@ -9,6 +9,11 @@ package dev.scx.io;
 ///
 /// 为了性能考虑, 本类不做任何边界检查, 调用者需保证参数合法.
 ///
+/// ByteChunk 始终基于堆上的 byte[], 不提供堆外 (如 MemorySegment / 内存映射文件) 的实现:
+/// 公开的 bytes 字段是所有 ByteIndexer, ByteConsumer 以及 ByteOutput (包括第三方实现) 直接读取的契约,
+/// 没有 byte[] 的数据块要么破坏这些实现, 要么需要在每一处增加第二条代码路径.
+/// 需要读取内存映射文件时, 在映射上按块批量拷贝到 byte[] (参考 [dev.scx.io.file.ParallelFileSearcher]).
+///
 /// @author scx567888
 public final class ByteChunk {
 
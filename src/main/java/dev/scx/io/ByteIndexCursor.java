@@ -0,0 +1,33 @@
+package dev.scx.io;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+
+/// ByteIndexCursor
+///
+/// 可恢复的查找游标, 由 [ByteInput#indexCursor(dev.scx.io.indexer.ByteIndexer)] 创建.
+///
+/// - 行为与 [ByteInput#indexOf(dev.scx.io.indexer.ByteIndexer, long)] 相同, maxLength 与返回的索引均相对于当前读取位置.
+/// - 抛出 NoMatchFoundException 后, 游标会保留已扫描的长度以及 ByteIndexer 的部分匹配状态,
+///   下次调用 (如更大的 maxLength, 或有更多数据到达后) 从上次停止的位置继续查找, 每个字节只会被扫描一次.
+///   (ByteInput 的默认实现不保存进度, 参考 [ByteInput#indexCursor(dev.scx.io.indexer.ByteIndexer)].)
+/// - 匹配成功, 或读取位置在两次调用之间发生变化 (如 read, skip), 下次调用会从当前读取位置重新开始.
+///
+/// @author scx567888
+public interface ByteIndexCursor {
+
+    /// 结果写入 result, 行为参考 [ByteInput#indexOf(dev.scx.io.indexer.ByteIndexer, long, MutableByteMatchResult)]
+    void indexOf(long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException;
+
+    default ByteMatchResult indexOf(long maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        var result = new MutableByteMatchResult();
+        indexOf(maxLength, result);
+        return result.toByteMatchResult();
+    }
+
+    /// 丢弃已保存的扫描进度, 下次调用从当前读取位置重新开始.
+    void reset();
+
+}
@@ -2,6 +2,8 @@ package dev.scx.io;
 
 import dev.scx.exception.ScxWrappedException;
 import dev.scx.io.consumer.ByteConsumer;
+import dev.scx.io.consumer.FillByteArrayByteConsumer;
+import dev.scx.io.consumer.FindAllByteConsumer;
 import dev.scx.io.consumer.LazyByteArrayByteConsumer;
 import dev.scx.io.consumer.SkipByteConsumer;
 import dev.scx.io.exception.InputAlreadyClosedException;
@@ -9,9 +11,12 @@ import dev.scx.io.exception.NoMatchFoundException;
 import dev.scx.io.exception.NoMoreDataException;
 import dev.scx.io.exception.ScxInputException;
 import dev.scx.io.indexer.ByteIndexer;
-import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.indexer.ByteIndexerFactory;
+import dev.scx.io.indexer.BytePattern;
 import dev.scx.io.indexer.SingleByteIndexer;
 
+import java.util.function.LongConsumer;
+
 /// ByteInput
 ///
 /// ByteInput 提供两类使用层级:
@@ -39,6 +44,8 @@ import dev.scx.io.indexer.SingleByteIndexer;
 ///
 /// - 动作方法 indexOf.
 ///   - 空匹配模式的 indexOf 看作一种无动作 (因其事实上可以匹配任何数据), 恒返回 0.
+///   - 接收 byte[] 模式串的便捷方法 通过 [ByteIndexerFactory] 自动选择匹配器 (每次调用都会重新构建查找表).
+///   - 接收 [BytePattern] 的方法 复用预先编译的查找表, 每次调用只创建持有匹配状态的 ByteIndexer.
 ///
 /// - 请求方法 readAll / peekAll / skipAll / transferToAll .
 ///   - 和动作方法唯一的不同在于, 请求方法的调用者一般只关心结果 而不是流的结束状态, 所以即使处于 EOF 状态 也会宽松的返回结果 (空数组 或 0 等).
@@ -95,9 +102,57 @@ public interface ByteInput extends AutoCloseable {
     ///     - 如果 当前没有数据可读 (立即遇到 EOF), 则会抛出 NoMoreDataException.
     ByteMatchResult indexOf(ByteIndexer indexer, long maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException;
 
-    /// 在当前读取位置创建一个标记对象.
+    /// 行为参考 [ByteInput#indexOf(ByteIndexer, long)], 但结果写入调用者提供的 result 中, 而不是返回新的 ByteMatchResult.
+    ///
+    /// - result 可以在多次调用之间复用, 配合内置的 ByteIndexer 可以做到每次匹配零分配 (如逐行扫描).
+    /// - 抛出异常时 result 的内容未定义.
+    /// - 默认实现退化为 indexOf(indexer, maxLength) 并拷贝结果, 内置实现均直接实现本方法, 不会分配结果对象.
+    default void indexOf(ByteIndexer indexer, long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        var matchResult = indexOf(indexer, maxLength);
+        result.set(matchResult.index, matchResult.matchedLength);
+    }
+
+    /// 创建一个可恢复的查找游标, 用于 "限定 maxLength 查找失败后, 待更多数据到达再重试" 的场景, 重试时不会重复扫描已扫描过的数据.
+    ///
+    /// 游标独占 indexer, 在游标使用期间 indexer 不应被用于其他查找. 详细行为参考 [ByteIndexCursor].
+    ///
+    /// 默认实现不保存扫描进度, 每次调用都重置 indexer 并从当前读取位置重新查找 (结果相同, 但会重复扫描), 内置实现均会保存扫描进度.
+    default ByteIndexCursor indexCursor(ByteIndexer indexer) {
+        return new ByteIndexCursor() {
+
+            @Override
+            public void indexOf(long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+                indexer.reset();
+                ByteInput.this.indexOf(indexer, maxLength, result);
+            }
+
+            @Override
+            public void reset() {
+
+            }
+
+        };
+    }
+
+    /// 在当前读取位置创建一个不限制读取长度的标记对象.
+    ///
+    /// 标记有效期间, 标记位置之后的数据会一直保留在内存中, 所以不再需要时应调用 [ByteInputMark#release()].
     ByteInputMark mark() throws InputAlreadyClosedException;
 
+    /// 在当前读取位置创建一个标记对象.
+    ///
+    /// - 从标记位置开始读取 (或跳过) 超过 readLimit 个字节后, 标记失效, 此后 reset 会抛出 [dev.scx.io.exception.InvalidMarkException].
+    /// - 标记有效期间, 标记位置之后的数据会一直保留在内存中, 所以不再需要时应调用 [ByteInputMark#release()].
+    /// - 默认实现忽略 readLimit, 退化为 [#mark()] (标记不会因读取过多而失效), 内置实现均会限制.
+    ///
+    /// @param readLimit 最大允许读取的字节数, 不能为负数
+    default ByteInputMark mark(long readLimit) throws InputAlreadyClosedException {
+        if (readLimit < 0) {
+            throw new IllegalArgumentException("readLimit must not be negative");
+        }
+        return mark();
+    }
+
     /// 检测当前流是否关闭
     boolean isClosed();
 
@@ -222,7 +277,38 @@ public interface ByteInput extends AutoCloseable {
     }
 
     default ByteMatchResult indexOf(byte[] b, long maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
-        return indexOf(new KMPByteIndexer(b), maxLength);
+        return indexOf(ByteIndexerFactory.createByteIndexer(b), maxLength);
+    }
+
+    default ByteMatchResult indexOf(BytePattern pattern) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        return indexOf(pattern, Long.MAX_VALUE);
+    }
+
+    default ByteMatchResult indexOf(BytePattern pattern, long maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        return indexOf(pattern.newIndexer(), maxLength);
+    }
+
+    /// 读取全部数据 (直到 EOF), 并将 indexer 的每个匹配 (互不重叠) 的起始偏移量 (相对于调用时的读取位置) 依次交给 offsetConsumer.
+    ///
+    /// - 只扫描一遍数据, 内存占用恒定, 不会为每个匹配分配对象.
+    /// - 查找前会重置 indexer. EOF 处残留的部分匹配被忽略.
+    /// - 如果 indexer 是 空匹配模式, 看作一种无动作, 不消费数据, 恒返回 0.
+    /// - 和 readAll 一样, 即使处于 EOF 状态也会宽松的返回 0.
+    ///
+    /// @return 匹配的数量
+    default long findAll(ByteIndexer indexer, LongConsumer offsetConsumer) throws ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        if (indexer.isEmptyPattern()) {
+            return 0;
+        }
+        indexer.reset();
+        var consumer = new FindAllByteConsumer(indexer, offsetConsumer);
+        readAll(consumer);
+        return consumer.count();
+    }
+
+    /// 读取全部数据 (直到 EOF), 并返回 indexer 的匹配数量, 行为参考 [#findAll(ByteIndexer, LongConsumer)]
+    default long count(ByteIndexer indexer) throws ScxInputException, InputAlreadyClosedException {
+        return findAll(indexer, _ -> {});
     }
 
     default byte[] readUntil(ByteIndexer byteIndexer) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
@@ -234,8 +320,11 @@ public interface ByteInput extends AutoCloseable {
     /// - 返回的数据 不包含模式串.
     /// - 方法调用结束后, ByteInput 的读取指针会跳过模式串的长度, 即下一次读取从模式串之后开始.
     default byte[] readUntil(ByteIndexer byteIndexer, int maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
-        var indexMatchResult = indexOf(byteIndexer, maxLength);
-        var bytes = readFully((int) indexMatchResult.index);
+        var indexMatchResult = new MutableByteMatchResult();
+        indexOf(byteIndexer, maxLength, indexMatchResult);
+        // 长度已知, 直接填充目标数组, 避免 LazyByteArrayByteConsumer 的节点分配与二次拷贝
+        var bytes = new byte[(int) indexMatchResult.index];
+        readFully(new FillByteArrayByteConsumer(bytes), bytes.length);
         skipFully(indexMatchResult.matchedLength);
         return bytes;
     }
@@ -253,7 +342,15 @@ public interface ByteInput extends AutoCloseable {
     }
 
     default byte[] readUntil(byte[] b, int maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
-        return readUntil(new KMPByteIndexer(b), maxLength);
+        return readUntil(ByteIndexerFactory.createByteIndexer(b), maxLength);
+    }
+
+    default byte[] readUntil(BytePattern pattern) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        return readUntil(pattern, Integer.MAX_VALUE);
+    }
+
+    default byte[] readUntil(BytePattern pattern, int maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        return readUntil(pattern.newIndexer(), maxLength);
     }
 
     default byte[] peekUntil(ByteIndexer byteIndexer) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
@@ -261,8 +358,11 @@ public interface ByteInput extends AutoCloseable {
     }
 
     default byte[] peekUntil(ByteIndexer byteIndexer, int maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
-        var indexMatchResult = indexOf(byteIndexer, maxLength);
-        return peekFully((int) indexMatchResult.index);
+        var indexMatchResult = new MutableByteMatchResult();
+        indexOf(byteIndexer, maxLength, indexMatchResult);
+        var bytes = new byte[(int) indexMatchResult.index];
+        peekFully(new FillByteArrayByteConsumer(bytes), bytes.length);
+        return bytes;
     }
 
     default byte[] peekUntil(byte b) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
@@ -278,7 +378,15 @@ public interface ByteInput extends AutoCloseable {
     }
 
     default byte[] peekUntil(byte[] b, int maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
-        return peekUntil(new KMPByteIndexer(b), maxLength);
+        return peekUntil(ByteIndexerFactory.createByteIndexer(b), maxLength);
+    }
+
+    default byte[] peekUntil(BytePattern pattern) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        return peekUntil(pattern, Integer.MAX_VALUE);
+    }
+
+    default byte[] peekUntil(BytePattern pattern, int maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        return peekUntil(pattern.newIndexer(), maxLength);
     }
 
 }
@@ -1,13 +1,28 @@
 package dev.scx.io;
 
 import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.InvalidMarkException;
 
 /// ByteInputMark
 ///
+/// - mark 存活 (未失效, 未释放) 期间, mark 位置之后的数据会一直保留在内存中.
+/// - 从 mark 位置开始读取 (或跳过) 的字节数超过 readLimit 后, mark 失效, 其保留的数据随之释放.
+/// - 不再需要时应调用 [#release()], 而不是依赖 GC.
+///
 /// @author scx567888
 public interface ByteInputMark {
 
     /// 将读取位置恢复到当前 mark.
-    void reset() throws InputAlreadyClosedException;
+    ///
+    /// - mark 已被释放 或 已超过 readLimit 时, 抛出 InvalidMarkException.
+    /// - reset 之后 mark 仍然有效, 可以多次 reset.
+    void reset() throws InvalidMarkException, InputAlreadyClosedException;
+
+    /// 释放当前 mark, 之后不再为其保留数据 (幂等).
+    ///
+    /// 默认什么都不做 (即 不支持提前释放), 内置实现均会立即释放.
+    default void release() {
+
+    }
 
 }
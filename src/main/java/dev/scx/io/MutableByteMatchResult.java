@@ -0,0 +1,34 @@
+package dev.scx.io;
+
+/// MutableByteMatchResult
+///
+/// [ByteMatchResult] 的可变版本, 由调用者创建并在多次 indexOf 之间复用, 用于逐行扫描等高频场景下避免每次匹配分配结果对象.
+///
+/// 参考 [ByteInput#indexOf(dev.scx.io.indexer.ByteIndexer, long, MutableByteMatchResult)].
+///
+/// @author scx567888
+public final class MutableByteMatchResult {
+
+    public long index;
+    public int matchedLength;
+
+    public MutableByteMatchResult() {
+        this.index = -1;
+        this.matchedLength = -1;
+    }
+
+    public void set(long index, int matchedLength) {
+        this.index = index;
+        this.matchedLength = matchedLength;
+    }
+
+    public ByteMatchResult toByteMatchResult() {
+        return new ByteMatchResult(index, matchedLength);
+    }
+
+    @Override
+    public String toString() {
+        return "MutableByteMatchResult[index=" + index + ", matchedLength=" + matchedLength + ']';
+    }
+
+}
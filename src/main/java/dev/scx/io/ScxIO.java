@@ -277,14 +277,30 @@ public final class ScxIO {
 
     // ******************** cache ***************************
 
+    /// 所有数据都缓存在内存中.
     public static CacheByteSupplier cacheByteSupplier(ByteInput byteInput) {
         return new CacheByteSupplier(new ByteInputByteSupplier(byteInput));
     }
 
+    /// 所有数据都缓存在内存中.
     public static CacheByteSupplier cacheByteSupplier(ByteSupplier byteSupplier) {
         return new CacheByteSupplier(byteSupplier);
     }
 
+    /// 超过 memoryLimit 的部分溢出到临时文件.
+    /// 注意 使用完毕后必须 close (或 discard) 返回的 CacheByteSupplier 以删除临时文件,
+    /// 多次回放时 请用 [#noClose(ByteSupplier)] 包装后再交给 ByteInput, 否则第一次 close 就会删除临时文件.
+    public static CacheByteSupplier cacheByteSupplier(ByteInput byteInput, long memoryLimit) {
+        return new CacheByteSupplier(new ByteInputByteSupplier(byteInput), memoryLimit);
+    }
+
+    /// 超过 memoryLimit 的部分溢出到临时文件.
+    /// 注意 使用完毕后必须 close (或 discard) 返回的 CacheByteSupplier 以删除临时文件,
+    /// 多次回放时 请用 [#noClose(ByteSupplier)] 包装后再交给 ByteInput, 否则第一次 close 就会删除临时文件.
+    public static CacheByteSupplier cacheByteSupplier(ByteSupplier byteSupplier, long memoryLimit) {
+        return new CacheByteSupplier(byteSupplier, memoryLimit);
+    }
+
     // ******************** other ***************************
 
     /// 隔离底层 close.
@@ -4,6 +4,7 @@ import dev.scx.io.ByteInput;
 import dev.scx.io.ByteInputMark;
 import dev.scx.io.consumer.FillByteArrayByteConsumer;
 import dev.scx.io.consumer.OutputStreamByteConsumer;
+import dev.scx.io.exception.InvalidMarkException;
 import dev.scx.io.exception.NoMoreDataException;
 import dev.scx.io.exception.ScxInputException;
 
@@ -152,15 +153,23 @@ public class ByteInputInputStream extends InputStream implements ByteInputAdapte
         return true;
     }
 
+    /// 读取超过 readlimit 个字节后 mark 失效, 此时 reset 会抛出 IOException.
     @Override
     public void mark(int readlimit) {
-        this.mark = byteInput.mark();
+        if (this.mark != null) {
+            this.mark.release();
+        }
+        this.mark = byteInput.mark(Math.max(readlimit, 0));
     }
 
     @Override
     public void reset() throws IOException {
         if (this.mark != null) {
-            this.mark.reset();
+            try {
+                this.mark.reset();
+            } catch (InvalidMarkException e) {
+                throw new IOException("Resetting to invalid mark", e);
+            }
         }
     }
 
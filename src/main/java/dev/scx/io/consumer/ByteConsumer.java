@@ -15,6 +15,7 @@ import dev.scx.io.ByteChunk;
 /// 2. 调用 accept 的一方必须保证:
 ///    传入的 ByteChunk 所引用的底层 byte[] 不会被覆写或复用;
 ///    若无法保证该稳定性, 调用方必须在调用 accept 之前自行拷贝数据.
+///    例外: 当 [#retainsChunks()] 返回 false 时, 调用方只需保证 accept 执行期间的稳定性.
 ///
 /// 3. 只读契约:
 ///    传入的 ByteChunk 为只读视图.
@@ -37,4 +38,14 @@ public interface ByteConsumer {
     /// @throws Throwable consumer 内部抛出的异常将由调用方包装并重新抛出.
     boolean accept(ByteChunk chunk) throws Throwable;
 
+    /// 是否会在 accept 返回后继续使用传入的 ByteChunk.
+    ///
+    /// 返回 false 表示 consumer 在 accept 内部就完成了对数据的使用 (如 拷贝, 写出, 计数),
+    /// 调用方可以直接传入之后会被覆写的缓冲区视图, 无需预先拷贝 (参考 [dev.scx.io.input.RingBufferByteInput]).
+    ///
+    /// 默认返回 true (保守).
+    default boolean retainsChunks() {
+        return true;
+    }
+
 }
@@ -55,6 +55,11 @@ public final class EagerByteArrayByteConsumer implements ByteConsumer {
         return true;
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 数据在 accept 中已被拷贝
+    }
+
     public byte[] bytes() {
         return Arrays.copyOf(bytes, total);
     }
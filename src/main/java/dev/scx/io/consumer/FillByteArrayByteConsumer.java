@@ -43,6 +43,11 @@ public final class FillByteArrayByteConsumer implements ByteConsumer {
         return true;
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 数据在 accept 中已被拷贝
+    }
+
     public int bytesFilled() {
         return bytesFilled;
     }
@@ -0,0 +1,62 @@
+package dev.scx.io.consumer;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.indexer.ByteIndexer;
+
+import java.util.function.LongConsumer;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+
+/// FindAllByteConsumer
+///
+/// 在流经的所有数据中查找 indexer 的全部匹配 (互不重叠), 并将每个匹配的起始偏移量 (相对于第一个 chunk 的起点) 交给 offsetConsumer.
+///
+/// - 每个 chunk 只扫描一次, 匹配可以跨 chunk, 不会为每个匹配分配对象.
+/// - 本身不保留任何数据, 但 chunk 会被交给 indexer, 所以是否保留数据块取决于 [ByteIndexer#retainsChunks()].
+/// - 空匹配模式不在本实现的处理范围内, 必须由调用者提前判断.
+///
+/// @author scx567888
+public final class FindAllByteConsumer implements ByteConsumer {
+
+    private final ByteIndexer indexer;
+    private final LongConsumer offsetConsumer;
+    /// 当前 chunk 起点的偏移量
+    private long offset;
+    private long count;
+
+    public FindAllByteConsumer(ByteIndexer indexer, LongConsumer offsetConsumer) {
+        this.indexer = indexer;
+        this.offsetConsumer = offsetConsumer;
+        this.offset = 0;
+        this.count = 0;
+    }
+
+    @Override
+    public boolean accept(ByteChunk chunk) {
+        var start = 0;
+        while (start < chunk.length) {
+            var packedResult = indexer.indexOfPacked(chunk, start, chunk.length);
+            if (!isFullMatch(packedResult)) {
+                break;
+            }
+            // 索引可能为负数 (起点位于之前的 chunk)
+            var index = unpackIndex(packedResult);
+            offsetConsumer.accept(offset + start + index);
+            count = count + 1;
+            // 匹配一定在当前 chunk 中结束, 从匹配之后继续查找
+            start = start + index + unpackMatchedLength(packedResult);
+        }
+        offset += chunk.length;
+        return true; // 一直查找
+    }
+
+    @Override
+    public boolean retainsChunks() {
+        return indexer.retainsChunks(); // 本身不保存数据, 但 indexer 可能保存
+    }
+
+    public long count() {
+        return count;
+    }
+
+}
@@ -25,6 +25,11 @@ public final class OutputStreamByteConsumer implements ByteConsumer {
         return true;
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 数据在 accept 中已被写出
+    }
+
     /// 写入的总长度
     public long bytesWritten() {
         return bytesWritten;
@@ -19,6 +19,11 @@ public final class SkipByteConsumer implements ByteConsumer {
         return true; // 一直跳过
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只计数, 不使用数据
+    }
+
     public long bytesSkipped() {
         return bytesSkipped;
     }
@@ -0,0 +1,15 @@
+package dev.scx.io.exception;
+
+/// mark 已失效 (已被释放, 或 从 mark 位置开始读取的字节数超过了 readLimit), 本质上是一种状态异常.
+///
+/// 注意: 此类设计为保留调用栈, 不要为了性能改为无栈:
+/// 此异常表示明确的状态违规(调用错误), 设计为保留调用栈以便定位问题.
+///
+/// @author scx567888
+public final class InvalidMarkException extends RuntimeException {
+
+    public InvalidMarkException() {
+
+    }
+
+}
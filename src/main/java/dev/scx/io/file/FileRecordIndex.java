@@ -0,0 +1,273 @@
+package dev.scx.io.file;
+
+import dev.scx.io.ByteInput;
+import dev.scx.io.MutableByteMatchResult;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.exception.ScxOutputException;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.LineBreakByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.FileByteSupplier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/// FileRecordIndex
+///
+/// 大文件的稀疏记录索引, 用于按记录号 (如行号) 随机访问, 索引保存在独立的索引文件 (sidecar) 中.
+///
+/// - 记录以分隔符 (由 delimiterFactory 创建的 ByteIndexer 匹配, 默认为换行符) 结束, 记录 0 从偏移量 0 开始.
+/// - 每隔 interval 条记录保存一个起始偏移量, 查找记录 N 时从第 N / interval 个偏移量处开始, 再顺序跳过 N % interval 条记录.
+/// - 数据文件只追加增长时, 可以调用 [#update()] 增量更新, 只扫描上次结束位置之后的数据 (从最后一条不完整记录的起点开始).
+/// - 非线程安全. 分隔符不会保存在索引文件中, 调用者需保证每次使用相同的分隔符.
+///
+/// 索引文件格式 (大端序):
+/// - 头部: magic (int), version (int), interval (int), recordCount (long), lastRecordStart (long), entryCount (long).
+/// - 之后是 entryCount 个偏移量, 每个以 "与前一个偏移量的差值" 的无符号 varint 形式存储.
+/// - 每次更新都将完整的索引写入同目录下的临时文件 (`<索引文件名>.tmp`), 刷盘后通过 [Files#move] (ATOMIC_MOVE) 原子替换索引文件,
+///   所以中途崩溃时索引文件要么是更新前的版本, 要么是更新后的版本, 不会出现头部与偏移量不一致的情况.
+///
+/// @author scx567888
+public final class FileRecordIndex {
+
+    public static final int DEFAULT_INTERVAL = 1024;
+
+    private static final int MAGIC = 0x53435249; // "SCRI"
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_LENGTH = 4 + 4 + 4 + 8 + 8 + 8;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final Supplier<ByteIndexer> delimiterFactory;
+    private final int interval;
+    /// 已完整结束的记录数 (即已找到的分隔符数量)
+    private long recordCount;
+    /// 最后一条 (未结束的) 记录的起点, 也是下次增量更新的起点
+    private long lastRecordStart;
+    /// entries[j] 为记录 j * interval 的起点
+    private long[] entries;
+    private int entryCount;
+
+    public FileRecordIndex(File dataFile, File indexFile) throws ScxInputException, ScxOutputException {
+        this(dataFile, indexFile, LineBreakByteIndexer::new, DEFAULT_INTERVAL);
+    }
+
+    /// 加载已有的索引文件, 不存在 (或为空) 时创建新的索引文件. 不会扫描数据文件, 需要调用 [#update()].
+    ///
+    /// @param delimiterFactory 每次调用都必须返回新的 ByteIndexer 实例
+    public FileRecordIndex(File dataFile, File indexFile, Supplier<ByteIndexer> delimiterFactory, int interval) throws ScxInputException, ScxOutputException {
+        if (interval <= 0) {
+            throw new IllegalArgumentException("interval must be greater than 0");
+        }
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.delimiterFactory = delimiterFactory;
+        this.interval = interval;
+        if (indexFile.length() > 0) {
+            load();
+        } else {
+            this.recordCount = 0;
+            this.lastRecordStart = 0;
+            this.entries = new long[16];
+            this.entryCount = 1;// 记录 0 的起点
+            write();
+        }
+    }
+
+    /// 扫描上次更新之后追加的数据, 并更新索引文件
+    ///
+    /// @return 新增的完整记录数
+    public long update() throws ScxInputException, ScxOutputException {
+        var dataLength = dataFile.length();
+        if (dataLength < lastRecordStart) {
+            throw new ScxInputException("data file was truncated: " + dataFile);
+        }
+        var oldRecordCount = recordCount;
+        var position = lastRecordStart;
+        try (var byteInput = new DefaultByteInput(new FileByteSupplier(dataFile, position, dataLength - position))) {
+            var indexer = delimiterFactory.get();
+            var result = new MutableByteMatchResult();
+            while (true) {
+                try {
+                    byteInput.indexOf(indexer, Long.MAX_VALUE, result);
+                } catch (NoMatchFoundException | NoMoreDataException _) {
+                    // 剩余数据不足一条完整记录
+                    break;
+                }
+                var recordLength = result.index + result.matchedLength;
+                byteInput.skipFully(recordLength);
+                position += recordLength;
+                recordCount = recordCount + 1;
+                if (recordCount % interval == 0) {
+                    addEntry(position);
+                }
+            }
+        } catch (NoMoreDataException e) {
+            // skipFully 只会跳过已经缓冲的数据, 理论上不会发生
+            throw new ScxInputException(e);
+        }
+        lastRecordStart = position;
+        write();
+        return recordCount - oldRecordCount;
+    }
+
+    /// 已完整结束的记录数
+    public long recordCount() {
+        return recordCount;
+    }
+
+    public int interval() {
+        return interval;
+    }
+
+    /// 记录 recordNumber 的起始偏移量, recordNumber 可以等于 recordCount (即最后一条未结束记录的起点)
+    public long recordOffset(long recordNumber) throws ScxInputException {
+        if (recordNumber < 0 || recordNumber > recordCount) {
+            throw new IndexOutOfBoundsException("recordNumber: " + recordNumber + ", recordCount: " + recordCount);
+        }
+        var entryOffset = entries[(int) (recordNumber / interval)];
+        var skipCount = recordNumber % interval;
+        if (skipCount == 0) {
+            return entryOffset;
+        }
+        var position = entryOffset;
+        try (var byteInput = new DefaultByteInput(new FileByteSupplier(dataFile, entryOffset, dataFile.length() - entryOffset))) {
+            var indexer = delimiterFactory.get();
+            var result = new MutableByteMatchResult();
+            for (long i = 0; i < skipCount; i = i + 1) {
+                byteInput.indexOf(indexer, Long.MAX_VALUE, result);
+                var recordLength = result.index + result.matchedLength;
+                byteInput.skipFully(recordLength);
+                position += recordLength;
+            }
+        } catch (NoMatchFoundException | NoMoreDataException e) {
+            // 已索引的记录一定存在, 除非数据文件被修改
+            throw new ScxInputException("data file was modified: " + dataFile, e);
+        }
+        return position;
+    }
+
+    /// 创建从记录 recordNumber 开始直到文件末尾的 ByteInput
+    public ByteInput openRecords(long recordNumber) throws ScxInputException {
+        var offset = recordOffset(recordNumber);
+        return new DefaultByteInput(new FileByteSupplier(dataFile, offset, dataFile.length() - offset));
+    }
+
+    /// 创建只包含记录 [recordNumber, recordNumber + count) 的 ByteInput (包含分隔符)
+    public ByteInput openRecords(long recordNumber, long count) throws ScxInputException {
+        if (count < 0 || recordNumber + count > recordCount) {
+            throw new IndexOutOfBoundsException("recordNumber: " + recordNumber + ", count: " + count + ", recordCount: " + recordCount);
+        }
+        var offset = recordOffset(recordNumber);
+        var end = recordOffset(recordNumber + count);
+        return new DefaultByteInput(new FileByteSupplier(dataFile, offset, end - offset));
+    }
+
+    private void addEntry(long offset) {
+        if (entryCount == entries.length) {
+            entries = Arrays.copyOf(entries, entryCount * 2);
+        }
+        entries[entryCount] = offset;
+        entryCount = entryCount + 1;
+    }
+
+    /// 写入头部, 并将 entries 编码为 varint 差值
+    private byte[] encode() {
+        var out = new ByteArrayOutputStream();
+        var header = ByteBuffer.allocate(HEADER_LENGTH)
+            .putInt(MAGIC)
+            .putInt(VERSION)
+            .putInt(interval)
+            .putLong(recordCount)
+            .putLong(lastRecordStart)
+            .putLong(entryCount);
+        out.writeBytes(header.array());
+        var previous = 0L;
+        for (int i = 0; i < entryCount; i = i + 1) {
+            var delta = entries[i] - previous;
+            while ((delta & ~0x7FL) != 0) {
+                out.write((int) ((delta & 0x7F) | 0x80));
+                delta >>>= 7;
+            }
+            out.write((int) delta);
+            previous = entries[i];
+        }
+        return out.toByteArray();
+    }
+
+    /// 写入临时文件并刷盘, 然后原子替换索引文件
+    private void write() throws ScxOutputException {
+        var tempFile = new File(indexFile.getAbsoluteFile().getParentFile(), indexFile.getName() + ".tmp");
+        try {
+            try (var out = new FileOutputStream(tempFile)) {
+                out.write(encode());
+                out.getFD().sync();
+            }
+            Files.move(tempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw new ScxOutputException(e);
+        }
+    }
+
+    private void load() throws ScxInputException {
+        byte[] bytes;
+        try {
+            bytes = Files.readAllBytes(indexFile.toPath());
+        } catch (IOException e) {
+            throw new ScxInputException(e);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new ScxInputException("invalid record index file: " + indexFile);
+        }
+        var buffer = ByteBuffer.wrap(bytes);
+        if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            throw new ScxInputException("invalid record index file: " + indexFile);
+        }
+        var fileInterval = buffer.getInt();
+        if (fileInterval != interval) {
+            throw new IllegalArgumentException("interval mismatch, index file: " + fileInterval + ", expected: " + interval);
+        }
+        this.recordCount = buffer.getLong();
+        this.lastRecordStart = buffer.getLong();
+        var count = buffer.getLong();
+        if (count != recordCount / interval + 1) {
+            throw new ScxInputException("invalid record index file: " + indexFile);
+        }
+        this.entries = new long[(int) count];
+        this.entryCount = 0;
+        var previous = 0L;
+        for (long i = 0; i < count; i = i + 1) {
+            var delta = 0L;
+            var shift = 0;
+            while (true) {
+                if (!buffer.hasRemaining() || shift > 63) {
+                    throw new ScxInputException("invalid record index file: " + indexFile);
+                }
+                var b = buffer.get();
+                delta |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+                shift = shift + 7;
+            }
+            previous = previous + delta;
+            addEntry(previous);
+        }
+        if (buffer.hasRemaining()) {
+            throw new ScxInputException("invalid record index file: " + indexFile);
+        }
+    }
+
+}
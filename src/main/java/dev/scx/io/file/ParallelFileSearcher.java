@@ -0,0 +1,212 @@
+package dev.scx.io.file;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteIndexer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+import static java.lang.foreign.ValueLayout.JAVA_BYTE;
+import static java.lang.Math.min;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.file.StandardOpenOption.READ;
+
+/// ParallelFileSearcher
+///
+/// 并行查找文件中 ByteIndexer 的全部匹配 (互不重叠), 结果与从头到尾顺序查找完全一致, 适合为超大文件建立行/记录偏移表.
+///
+/// - 文件被切分为若干段, 每段由 ForkJoinPool 中的一个任务通过内存映射 (FileChannel.map) 扫描, 每个任务使用 indexerFactory 创建独立的 ByteIndexer.
+/// - 每段向后多扫描 maxMatchLength - 1 个字节, 以找到跨越段边界的匹配 (只保留起点位于本段内的匹配).
+/// - 由于每段都从 "无匹配状态" 开始, 段首的匹配可能与上一段最后一个匹配重叠 (顺序查找时不会出现).
+///   拼接时检测这种冲突, 并从上一个匹配的结束位置开始顺序重新扫描, 直到与该段的结果重新同步.
+///
+/// 约束:
+/// - 任意匹配的长度不能超过 maxMatchLength (对于字面量即模式串长度, 对于 [dev.scx.io.indexer.LineBreakByteIndexer] 为 2).
+/// - ByteIndexer 只能看到堆上的 byte[], 所以映射的数据会按块复制到新的 byte[] 中 (每块只复制一次, 不会被复用或修改).
+///
+/// @author scx567888
+public final class ParallelFileSearcher {
+
+    /// 默认的分段长度
+    public static final long DEFAULT_SEGMENT_LENGTH = 64 * 1024 * 1024;
+
+    /// 从映射区域复制到 byte[] 的块长度
+    private static final int BLOCK_LENGTH = 1024 * 1024;
+
+    public static long[] findAll(File file, Supplier<ByteIndexer> indexerFactory, int maxMatchLength) throws ScxInputException {
+        return findAll(file, indexerFactory, maxMatchLength, DEFAULT_SEGMENT_LENGTH, ForkJoinPool.commonPool());
+    }
+
+    /// @param indexerFactory 每次调用都必须返回新的 ByteIndexer 实例
+    /// @param maxMatchLength 单个匹配的最大长度
+    /// @return 所有匹配的起始偏移量 (升序)
+    public static long[] findAll(File file, Supplier<ByteIndexer> indexerFactory, int maxMatchLength, long segmentLength, ForkJoinPool pool) throws ScxInputException {
+        if (maxMatchLength <= 0) {
+            throw new IllegalArgumentException("maxMatchLength must be greater than 0");
+        }
+        if (segmentLength <= 0) {
+            throw new IllegalArgumentException("segmentLength must be greater than 0");
+        }
+        try (var channel = FileChannel.open(file.toPath(), READ)) {
+            var fileLength = channel.size();
+            var segmentCount = (int) ((fileLength + segmentLength - 1) / segmentLength);
+
+            // 1, 并行扫描每一段
+            var tasks = new ArrayList<ForkJoinTask<MatchList>>(segmentCount);
+            for (int i = 0; i < segmentCount; i = i + 1) {
+                var segmentStart = i * segmentLength;
+                var segmentEnd = min(segmentStart + segmentLength, fileLength);
+                tasks.add(pool.submit(() -> {
+                    var matches = new MatchList();
+                    scan(channel, segmentStart, segmentEnd, fileLength, maxMatchLength, indexerFactory.get(), matches);
+                    return matches;
+                }));
+            }
+
+            // 2, 按顺序拼接, 并修复段首的冲突
+            var result = new MatchList();
+            for (int i = 0; i < segmentCount; i = i + 1) {
+                var matches = join(tasks.get(i));
+                var segmentEnd = min((i + 1) * segmentLength, fileLength);
+                var lastEnd = result.lastEnd();
+                if (matches.size == 0 || matches.starts[0] >= lastEnd) {
+                    result.addAll(matches, 0);
+                } else {
+                    var fixUp = new FixUp(matches, result);
+                    scan(channel, lastEnd, segmentEnd, fileLength, maxMatchLength, indexerFactory.get(), fixUp);
+                    if (fixUp.resyncIndex != -1) {
+                        result.addAll(matches, fixUp.resyncIndex);
+                    }
+                }
+            }
+
+            return Arrays.copyOf(result.starts, result.size);
+        } catch (IOException | UncheckedIOException e) {
+            throw new ScxInputException(e instanceof UncheckedIOException u ? u.getCause() : e);
+        }
+    }
+
+    private static MatchList join(ForkJoinTask<MatchList> task) throws IOException {
+        try {
+            return task.join();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /// 扫描 [from, min(segmentEnd + maxMatchLength - 1, fileLength)), 只报告起点 < segmentEnd 的匹配, 遇到第一个起点 >= segmentEnd 的匹配时停止.
+    private static void scan(FileChannel channel, long from, long segmentEnd, long fileLength, int maxMatchLength, ByteIndexer indexer, MatchVisitor visitor) throws UncheckedIOException {
+        var to = min(segmentEnd + maxMatchLength - 1, fileLength);
+        if (from >= to) {
+            return;
+        }
+        try (var arena = Arena.ofConfined()) {
+            var segment = channel.map(READ_ONLY, from, to - from, arena);
+            var size = to - from;
+            var position = 0L;
+            while (position < size) {
+                var length = (int) min(BLOCK_LENGTH, size - position);
+                var bytes = new byte[length];
+                MemorySegment.copy(segment, JAVA_BYTE, position, bytes, 0, length);
+                var chunk = ByteChunk.of(bytes);
+                var start = 0;
+                while (start < length) {
+                    var packedResult = indexer.indexOfPacked(chunk, start, length);
+                    if (!isFullMatch(packedResult)) {
+                        break;
+                    }
+                    var index = unpackIndex(packedResult);
+                    var matchedLength = unpackMatchedLength(packedResult);
+                    // 索引可能为负数 (起点位于之前的块)
+                    var matchStart = from + position + start + index;
+                    if (matchStart >= segmentEnd || !visitor.visit(matchStart, matchedLength)) {
+                        return;
+                    }
+                    start = start + index + matchedLength;
+                }
+                position += length;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private interface MatchVisitor {
+
+        /// @return 是否继续扫描
+        boolean visit(long start, int length);
+
+    }
+
+    private static final class MatchList implements MatchVisitor {
+
+        private long[] starts = new long[16];
+        private int[] lengths = new int[16];
+        private int size = 0;
+
+        @Override
+        public boolean visit(long start, int length) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                lengths = Arrays.copyOf(lengths, size * 2);
+            }
+            starts[size] = start;
+            lengths[size] = length;
+            size = size + 1;
+            return true;
+        }
+
+        private void addAll(MatchList other, int from) {
+            for (int i = from; i < other.size; i = i + 1) {
+                visit(other.starts[i], other.lengths[i]);
+            }
+        }
+
+        /// 最后一个匹配的结束位置, 没有匹配时为 0
+        private long lastEnd() {
+            return size == 0 ? 0 : starts[size - 1] + lengths[size - 1];
+        }
+
+    }
+
+    /// 从上一个匹配的结束位置顺序重新扫描, 直到遇到与该段结果完全相同的匹配 (之后两者的状态一致, 结果必然相同).
+    private static final class FixUp implements MatchVisitor {
+
+        private final MatchList matches;
+        private final MatchList result;
+        private int cursor;
+        private int resyncIndex;
+
+        private FixUp(MatchList matches, MatchList result) {
+            this.matches = matches;
+            this.result = result;
+            this.cursor = 0;
+            this.resyncIndex = -1;
+        }
+
+        @Override
+        public boolean visit(long start, int length) {
+            while (cursor < matches.size && matches.starts[cursor] < start) {
+                cursor = cursor + 1;
+            }
+            if (cursor < matches.size && matches.starts[cursor] == start && matches.lengths[cursor] == length) {
+                resyncIndex = cursor;
+                return false;
+            }
+            return result.visit(start, length);
+        }
+
+    }
+
+}
@@ -0,0 +1,34 @@
+package dev.scx.io.indexer;
+
+/// AsciiCase
+///
+/// ASCII 字母的大小写折叠, 供忽略大小写的 ByteIndexer 使用. 非 ASCII 字母的字节保持不变.
+///
+/// @author scx567888
+final class AsciiCase {
+
+    private AsciiCase() {
+
+    }
+
+    static boolean isLetter(byte b) {
+        return (b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z');
+    }
+
+    static byte toLowerCase(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b | 0x20) : b;
+    }
+
+    static byte toUpperCase(byte b) {
+        return b >= 'a' && b <= 'z' ? (byte) (b & ~0x20) : b;
+    }
+
+    static byte[] toLowerCase(byte[] bytes) {
+        var result = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i = i + 1) {
+            result[i] = toLowerCase(bytes[i]);
+        }
+        return result;
+    }
+
+}
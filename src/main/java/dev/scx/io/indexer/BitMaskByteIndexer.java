@@ -3,34 +3,69 @@ package dev.scx.io.indexer;
 import dev.scx.io.ByteChunk;
 
 import static dev.scx.io.indexer.StatusByteMatchResult.*;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 /// BitMaskByteIndexer
 ///
+/// Shift-And 查找, 状态向量的第 i 位表示 "模式串前 i + 1 个字节已匹配".
+///
+/// 支持任意长度的模式串, 状态向量由 words 个 long 组成, 字之间通过进位传递:
+/// - 长度 <= 64: 单个 long.
+/// - 长度 <= 128: 2 个 long (展开实现).
+/// - 长度 <= 256: 4 个 long (展开实现).
+/// - 更长: 通用循环实现.
+///
+/// 支持忽略 ASCII 大小写: 字母的大小写两种形式在位掩码表中共享同一组位, 查找过程与区分大小写时完全相同, 没有额外开销.
+///
+/// 可选的稀有字节前置过滤 (prefilter): 状态向量为 0 时, 使用 [SWARByteScanner] 直接跳到模式串中最稀有字节 (参考 [ByteFrequency]) 的下一次出现处,
+/// 只在候选位置附近运行 Shift-And, 部分匹配状态照常跨 chunk 保存. 模式串全部由常见字节组成时可能反而变慢.
+///
+/// 位掩码表可以预先编译为 [BitMaskBytePattern] 并在多个线程之间共享, 此时每次查找只需创建新的 BitMaskByteIndexer (只持有状态向量).
+///
 /// @author scx567888
 public final class BitMaskByteIndexer implements ByteIndexer {
 
     private final byte[] pattern;
+    /// 状态向量所占 long 的数量
+    private final int words;
+    /// 位掩码表, mask[byte * words + w] 为该字节对应的第 w 个字
     private final long[] mask;
-    private long state;
+    /// 结束位所在的字
+    private final int endWord;
+    /// 结束位在其所在字中的掩码
+    private final long endBit;
+    private final int rareOffset;
+    private final byte rareByte1;
+    private final byte rareByte2;
+    private final long[] state;
 
     public BitMaskByteIndexer(byte[] pattern) {
-        if (pattern.length > 64) {
-            throw new IllegalArgumentException("BitMaskByteIndexer only supports pattern length <= 64");
-        }
-        this.pattern = pattern;
-        this.mask = buildMask(pattern);
-        this.state = 0;
-    }
-
-    private static long[] buildMask(byte[] pattern) {
-        var mask = new long[256];
-        // 构建 bitmask (仅 pattern 中的字节会有1)
-        for (int i = 0; i < pattern.length; i = i + 1) {
-            // 第 i 位代表模式第 i 字节
-            var idx = pattern[i] & 0xFF;
-            mask[idx] |= 1L << i;
-        }
-        return mask;
+        this(pattern, false);
+    }
+
+    /// @param ignoreCase 是否忽略 ASCII 字母的大小写
+    public BitMaskByteIndexer(byte[] pattern, boolean ignoreCase) {
+        this(new BitMaskBytePattern(pattern, ignoreCase));
+    }
+
+    /// @param ignoreCase   是否忽略 ASCII 字母的大小写
+    /// @param usePrefilter 是否启用稀有字节前置过滤
+    public BitMaskByteIndexer(byte[] pattern, boolean ignoreCase, boolean usePrefilter) {
+        this(new BitMaskBytePattern(pattern, ignoreCase, usePrefilter));
+    }
+
+    /// 使用预先编译的模式串, 不会重新构建位掩码表
+    public BitMaskByteIndexer(BitMaskBytePattern compiled) {
+        this.pattern = compiled.pattern;
+        this.words = compiled.words;
+        this.mask = compiled.mask;
+        this.endWord = compiled.endWord;
+        this.endBit = compiled.endBit;
+        this.rareOffset = compiled.rareOffset;
+        this.rareByte1 = compiled.rareByte1;
+        this.rareByte2 = compiled.rareByte2;
+        this.state = new long[words];
     }
 
     /// 前提条件:
@@ -40,31 +75,192 @@ public final class BitMaskByteIndexer implements ByteIndexer {
     /// 若违反此前提, indexOf 的行为未定义.
     @Override
     public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
 
-        var endBit = 1L << (pattern.length - 1);
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+        var bytes = chunk.bytes;
+        var from = chunk.start + start;
+        var to = chunk.start + end;
+        if (rareOffset != -1) {
+            return indexOfPrefilter(bytes, from, to);
+        }
+        return indexOf0(bytes, from, to);
+    }
 
-        // BitMask 查找
-        for (var i = 0; i < chunk.length; i = i + 1) {
+    private long indexOf0(byte[] bytes, int from, int to) {
+        return switch (words) {
+            case 1 -> indexOf1(bytes, from, to);
+            case 2 -> indexOf2(bytes, from, to);
+            case 4 -> indexOf4(bytes, from, to);
+            default -> indexOfN(bytes, from, to);
+        };
+    }
 
-            var currentByte = chunk.get(i);
+    /// 前置过滤: 状态向量为 0 时, 先扫描稀有字节, 直接跳到下一个候选起点 (稀有字节位置 - rareOffset),
+    /// 再以模式串长度为窗口交给完整的 Shift-And 过程, 直到状态向量重新回到 0.
+    ///
+    /// 状态向量为 0 时 不存在任何进行中的部分匹配, 而起点位于候选起点之前的位置都不可能匹配, 所以跳过它们不会改变结果.
+    private long indexOfPrefilter(byte[] bytes, int from, int to) {
+        var i = from;
+        while (i < to) {
+            if (isInitialState()) {
+                var r = indexOfRareByte(bytes, i + rareOffset, to);
+                // 没有找到时, 只有最后 rareOffset 个字节可能是跨 chunk 匹配的起点
+                i = r != -1 ? r - rareOffset : max(i, to - rareOffset);
+                if (i == to) {
+                    break;
+                }
+            }
+            var windowEnd = min(to, i + pattern.length);
+            var result = indexOf0(bytes, i, windowEnd);
+            if (isFullMatch(result)) {
+                // 窗口内的相对索引 -> 相对于 from 的索引
+                return packFullMatch(unpackIndex(result) + (i - from), unpackMatchedLength(result));
+            }
+            i = windowEnd;
+        }
+        return isInitialState() ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private int indexOfRareByte(byte[] bytes, int from, int to) {
+        if (rareByte1 == rareByte2) {
+            return SWARByteScanner.indexOf(bytes, from, to, rareByte1);
+        }
+        return SWARByteScanner.indexOfAny(bytes, from, to, rareByte1, rareByte2);
+    }
 
-            var idx = currentByte & 0xFF;
+    private boolean isInitialState() {
+        for (var s : state) {
+            if (s != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
 
-            var m = mask[idx];
+    private long indexOf1(byte[] bytes, int from, int to) {
+
+        var s = state[0];
+
+        // BitMask 查找
+        for (var i = from; i < to; i = i + 1) {
+
+            var idx = bytes[i] & 0xFF;
 
             // Shift-And 核心: 向前推进一位 (匹配了新字符),并加上初始状态 (|1)
-            state = ((state << 1) | 1L) & m;
+            s = ((s << 1) | 1L) & mask[idx];
 
-            if ((state & endBit) != 0) {
+            if ((s & endBit) != 0) {
                 // 重置 state 为 0, 保证下次匹配
-                state = 0;
+                state[0] = 0;
                 // 当前索引 - 回退量 (模式串长度 - 1)
-                return fullMatch(i - (pattern.length - 1), pattern.length);
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
+            }
+
+        }
+
+        state[0] = s;
+
+        return s == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private long indexOf2(byte[] bytes, int from, int to) {
+
+        var s0 = state[0];
+        var s1 = state[1];
+
+        for (var i = from; i < to; i = i + 1) {
+
+            var base = (bytes[i] & 0xFF) << 1;
+
+            // 高位字接收低位字移出的最高位
+            s1 = ((s1 << 1) | (s0 >>> 63)) & mask[base + 1];
+            s0 = ((s0 << 1) | 1L) & mask[base];
+
+            // 长度 > 64 时 结束位一定位于第 2 个字
+            if ((s1 & endBit) != 0) {
+                state[0] = 0;
+                state[1] = 0;
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
             }
 
         }
 
-        return state == 0 ? NO_MATCH_RESULT : PARTIAL_MATCH_RESULT;
+        state[0] = s0;
+        state[1] = s1;
+
+        return (s0 | s1) == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private long indexOf4(byte[] bytes, int from, int to) {
+
+        var s0 = state[0];
+        var s1 = state[1];
+        var s2 = state[2];
+        var s3 = state[3];
+
+        // 长度 > 128 时 结束位位于第 3 或第 4 个字
+        var endBit2 = endWord == 2 ? endBit : 0L;
+        var endBit3 = endWord == 3 ? endBit : 0L;
+
+        for (var i = from; i < to; i = i + 1) {
+
+            var base = (bytes[i] & 0xFF) << 2;
+
+            // 从高位字到低位字, 保证使用的是上一轮的进位
+            s3 = ((s3 << 1) | (s2 >>> 63)) & mask[base + 3];
+            s2 = ((s2 << 1) | (s1 >>> 63)) & mask[base + 2];
+            s1 = ((s1 << 1) | (s0 >>> 63)) & mask[base + 1];
+            s0 = ((s0 << 1) | 1L) & mask[base];
+
+            if (((s2 & endBit2) | (s3 & endBit3)) != 0) {
+                state[0] = 0;
+                state[1] = 0;
+                state[2] = 0;
+                state[3] = 0;
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
+            }
+
+        }
+
+        state[0] = s0;
+        state[1] = s1;
+        state[2] = s2;
+        state[3] = s3;
+
+        return (s0 | s1 | s2 | s3) == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private long indexOfN(byte[] bytes, int from, int to) {
+
+        for (var i = from; i < to; i = i + 1) {
+
+            var base = (bytes[i] & 0xFF) * words;
+
+            // 从低位字到高位字, carry 为上一个字 (旧值) 移出的最高位
+            var carry = 1L;
+            for (var w = 0; w < words; w = w + 1) {
+                var s = state[w];
+                state[w] = ((s << 1) | carry) & mask[base + w];
+                carry = s >>> 63;
+            }
+
+            if ((state[endWord] & endBit) != 0) {
+                reset();
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
+            }
+
+        }
+
+        for (var s : state) {
+            if (s != 0) {
+                return PARTIAL_MATCH_PACKED;
+            }
+        }
+
+        return NO_MATCH_PACKED;
     }
 
     @Override
@@ -74,7 +270,14 @@ public final class BitMaskByteIndexer implements ByteIndexer {
 
     @Override
     public void reset() {
-        state = 0;
+        for (var w = 0; w < words; w = w + 1) {
+            state[w] = 0;
+        }
+    }
+
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
     }
 
 }
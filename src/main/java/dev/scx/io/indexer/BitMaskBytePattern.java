@@ -0,0 +1,83 @@
+package dev.scx.io.indexer;
+
+/// BitMaskBytePattern
+///
+/// [BitMaskByteIndexer] 的编译结果 (位掩码表 和 前置过滤使用的稀有字节), 不可变, 线程安全.
+///
+/// @author scx567888
+public final class BitMaskBytePattern implements BytePattern {
+
+    final byte[] pattern;
+    /// 状态向量所占 long 的数量
+    final int words;
+    /// 位掩码表, mask[byte * words + w] 为该字节对应的第 w 个字
+    final long[] mask;
+    /// 结束位所在的字
+    final int endWord;
+    /// 结束位在其所在字中的掩码
+    final long endBit;
+    /// 前置过滤使用的稀有字节在模式串中的索引, 未启用前置过滤时为 -1
+    final int rareOffset;
+    /// 稀有字节的两种形式 (忽略大小写时为小写和大写, 否则两者相同)
+    final byte rareByte1;
+    final byte rareByte2;
+
+    public BitMaskBytePattern(byte[] pattern) {
+        this(pattern, false);
+    }
+
+    /// @param ignoreCase 是否忽略 ASCII 字母的大小写
+    public BitMaskBytePattern(byte[] pattern, boolean ignoreCase) {
+        this(pattern, ignoreCase, false);
+    }
+
+    /// @param ignoreCase   是否忽略 ASCII 字母的大小写
+    /// @param usePrefilter 是否启用稀有字节前置过滤, 参考 [BitMaskByteIndexer]
+    public BitMaskBytePattern(byte[] pattern, boolean ignoreCase, boolean usePrefilter) {
+        // 复制一份, 防止调用者修改原数组
+        this.pattern = pattern.clone();
+        this.words = wordsOf(pattern.length);
+        this.mask = buildMask(this.pattern, words, ignoreCase);
+        this.endWord = (pattern.length - 1) >>> 6;
+        this.endBit = 1L << ((pattern.length - 1) & 63);
+        this.rareOffset = usePrefilter ? ByteFrequency.rarestIndex(this.pattern, ignoreCase) : -1;
+        this.rareByte1 = rareOffset != -1 ? (ignoreCase ? AsciiCase.toLowerCase(this.pattern[rareOffset]) : this.pattern[rareOffset]) : 0;
+        this.rareByte2 = ignoreCase ? AsciiCase.toUpperCase(rareByte1) : rareByte1;
+    }
+
+    /// 根据模式串长度计算状态向量的字数 (3 个字的情况 向上取整为 4, 以便使用展开实现)
+    private static int wordsOf(int patternLength) {
+        var words = (patternLength + 63) >>> 6;
+        if (words <= 1) {
+            return 1;
+        }
+        if (words == 3) {
+            return 4;
+        }
+        return words;
+    }
+
+    private static long[] buildMask(byte[] pattern, int words, boolean ignoreCase) {
+        var mask = new long[256 * words];
+        // 构建 bitmask (仅 pattern 中的字节会有1)
+        for (int i = 0; i < pattern.length; i = i + 1) {
+            // 第 i 位代表模式第 i 字节
+            var b = pattern[i];
+            var bit = 1L << (i & 63);
+            if (ignoreCase && AsciiCase.isLetter(b)) {
+                // 大小写两种形式都可以匹配第 i 字节
+                mask[(AsciiCase.toLowerCase(b) & 0xFF) * words + (i >>> 6)] |= bit;
+                mask[(AsciiCase.toUpperCase(b) & 0xFF) * words + (i >>> 6)] |= bit;
+            } else {
+                mask[(b & 0xFF) * words + (i >>> 6)] |= bit;
+            }
+        }
+        return mask;
+    }
+
+    @Override
+    public BitMaskByteIndexer newIndexer() {
+        return new BitMaskByteIndexer(this);
+    }
+
+}
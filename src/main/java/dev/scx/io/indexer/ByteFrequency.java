@@ -0,0 +1,52 @@
+package dev.scx.io.indexer;
+
+/// ByteFrequency
+///
+/// 字节在常见数据 (文本, 协议头, JSON, 代码等) 中出现频率的近似排名, 用于为前置过滤 (prefilter) 挑选模式串中 "最稀有" 的字节.
+///
+/// - 排名越小越稀有, 未列出的字节 (大部分控制字符 和 非 ASCII 字节) 视为最稀有, 排名为 0.
+/// - 忽略大小写时, 字母的大小写两种形式都会被扫描, 所以使用两者排名之和.
+///
+/// @author scx567888
+final class ByteFrequency {
+
+    /// 按出现频率从高到低排列的常见字节
+    private static final String COMMON_BYTES = " etaoinsrhldcumfpgwybvkxjqz\n\r\"0123456789,.:;-_/=&?()<>[]{}\t'\0ETAOINSRHLDCUMFPGWYBVKXJQZ*+#%@!|\\$~^`";
+
+    private static final int[] RANK = buildRank();
+
+    private ByteFrequency() {
+
+    }
+
+    private static int[] buildRank() {
+        var rank = new int[256];
+        var length = COMMON_BYTES.length();
+        for (int i = 0; i < length; i = i + 1) {
+            rank[COMMON_BYTES.charAt(i)] = length - i;
+        }
+        return rank;
+    }
+
+    static int rank(byte b, boolean ignoreCase) {
+        if (ignoreCase && AsciiCase.isLetter(b)) {
+            return RANK[AsciiCase.toLowerCase(b) & 0xFF] + RANK[AsciiCase.toUpperCase(b) & 0xFF];
+        }
+        return RANK[b & 0xFF];
+    }
+
+    /// 模式串中最稀有的字节的索引 (排名相同时取最靠前的), 空模式串返回 -1
+    static int rarestIndex(byte[] pattern, boolean ignoreCase) {
+        var index = -1;
+        var minRank = Integer.MAX_VALUE;
+        for (int i = 0; i < pattern.length; i = i + 1) {
+            var r = rank(pattern[i], ignoreCase);
+            if (r < minRank) {
+                minRank = r;
+                index = i;
+            }
+        }
+        return index;
+    }
+
+}
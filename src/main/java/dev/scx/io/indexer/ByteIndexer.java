@@ -14,6 +14,7 @@ import dev.scx.io.exception.ScxInputException;
 /// 2. 调用 indexOf 的一方必须保证:
 ///    传入的 ByteChunk 所引用的底层 byte[] 不会被覆写或复用;
 ///    若无法保证该稳定性, 调用方必须在调用 indexOf 之前自行拷贝数据.
+///    例外: 当 [#retainsChunks()] 返回 false 时, 调用方只需保证 indexOf 执行期间的稳定性.
 ///
 /// 3. 只读契约:
 ///    传入的 ByteChunk 为只读视图.
@@ -30,6 +31,17 @@ public interface ByteIndexer {
     /// @param chunk 一个稳定只读数据块视图. 该 ByteChunk 可在 indexOf 返回后继续使用, 但严禁修改其底层内容.
     StatusByteMatchResult indexOf(ByteChunk chunk);
 
+    /// 无分配版本的 indexOf, 在 chunk 的 [start, end) (相对索引) 区间中查找, 语义与 indexOf 完全相同.
+    ///
+    /// - 返回值为 long 打包形式的结果, 参考 [StatusByteMatchResult#packFullMatch(int, int)].
+    /// - 返回的索引相对于 start, 即与 indexOf(chunk.subChunk(start, end)) 的结果一致.
+    /// - 默认实现退化为 indexOf(chunk.subChunk(start, end)), 内置实现均直接实现本方法, 在任何情况下都不会分配对象.
+    ///
+    /// @param chunk 一个稳定只读数据块视图. 约束同 indexOf.
+    default long indexOfPacked(ByteChunk chunk, int start, int end) {
+        return StatusByteMatchResult.pack(indexOf(chunk.subChunk(start, end)));
+    }
+
     /// 是否为空匹配模式
     /// - 对于固定长度模式串: 返回 是否是空模式串
     /// - 对于无法静态确定的可变长度模式串 (如正则), 返回 false.
@@ -39,4 +51,14 @@ public interface ByteIndexer {
     /// 重置匹配状态
     void reset();
 
+    /// 是否会在 indexOf 返回后继续使用传入的 ByteChunk.
+    ///
+    /// 返回 false 表示 indexer 只在 indexOf 内部读取数据 (跨 chunk 的部分匹配只以状态的形式保存),
+    /// 调用方可以直接传入之后会被覆写或复用的缓冲区视图, 无需预先拷贝. 语义同 [dev.scx.io.consumer.ByteConsumer#retainsChunks()].
+    ///
+    /// 默认返回 true (保守), 内置实现均返回 false.
+    default boolean retainsChunks() {
+        return true;
+    }
+
 }
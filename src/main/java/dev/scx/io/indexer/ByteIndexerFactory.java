@@ -0,0 +1,118 @@
+package dev.scx.io.indexer;
+
+/// ByteIndexerFactory
+///
+/// 根据模式串的长度和字节分布, 为 byte[] 模式串选择最合适的 [ByteIndexer].
+///
+/// - 长度 0: [KMPByteIndexer] (空匹配模式, 由上层直接走快速路径).
+/// - 长度 1: [SingleByteIndexer].
+/// - 尾部具有周期性 (末尾字节跳跃距离过小) 时, 无论长度和字节分布: [BitMaskByteIndexer].
+/// - 否则, 长度 >= 8 且字节分散 (平均跳跃距离足够大): [HorspoolByteIndexer].
+/// - 否则, 长度 > 64: [HorspoolByteIndexer] (此时多字 Shift-And 每字节的开销已经高于 Horspool).
+/// - 其余情况: [BitMaskByteIndexer].
+///
+/// 判断依据:
+/// - 平均跳跃距离: 假设数据的字节分布与模式串相近 (如 boundary 附近的数据), Horspool 每一步的平均移动距离.
+///   由大量重复字节组成的模式串 (如 `------...`), 该值接近 1, Horspool 几乎逐字节移动, 不如 Shift-And.
+/// - 末尾字节跳跃距离: 窗口末尾与模式串末尾相同时的移动距离.
+///   该值过小 (如 `baaa...a`, `abab...ab`) 时, Horspool 在相似数据上每个位置都要向前比较大量字节, 会严重退化.
+///   即使前缀的字节很分散 (平均跳跃距离很大) 也是如此, 所以该条件对所有 Horspool 的选择都生效.
+///
+/// 各分支的取舍可参考测试目录中的 ByteIndexerBenchmark.
+///
+/// 忽略 ASCII 大小写的版本参考 [#createIgnoreCaseByteIndexer(byte[])].
+///
+/// 需要反复使用同一个模式串时, 应通过 [#compile(byte[])] 预先编译为 [BytePattern] (线程安全, 可缓存为静态常量),
+/// 每次查找只创建持有匹配状态的 ByteIndexer, 避免重复构建查找表.
+///
+/// @author scx567888
+public final class ByteIndexerFactory {
+
+    /// 使用 Horspool 的最小模式串长度, 更短的模式串跳跃距离有限, 不如 Shift-And
+    public static final int MIN_HORSPOOL_PATTERN_LENGTH = 8;
+
+    /// 使用 Horspool 的最小平均跳跃距离
+    public static final int MIN_HORSPOOL_AVERAGE_SHIFT = 4;
+
+    /// 单个 long 的 Shift-And 所能支持的最大模式串长度
+    public static final int MAX_SINGLE_WORD_PATTERN_LENGTH = 64;
+
+    /// 使用 Horspool 的最小末尾字节跳跃距离
+    public static final int MIN_HORSPOOL_LAST_BYTE_SHIFT = 8;
+
+    public static ByteIndexer createByteIndexer(byte[] pattern) {
+        return compile(pattern).newIndexer();
+    }
+
+    /// 创建忽略 ASCII 字母大小写的 ByteIndexer, 选择规则参考 [#compileIgnoreCase(byte[])].
+    public static ByteIndexer createIgnoreCaseByteIndexer(byte[] pattern) {
+        return compileIgnoreCase(pattern).newIndexer();
+    }
+
+    /// 编译模式串, 选择规则与 [#createByteIndexer(byte[])] 相同. 返回的 BytePattern 线程安全, 可以缓存为静态常量.
+    public static BytePattern compile(byte[] pattern) {
+        if (pattern.length == 0) {
+            return new KMPBytePattern(pattern);
+        }
+        if (pattern.length == 1) {
+            return singleBytePattern(pattern[0]);
+        }
+        if (pattern.length < MIN_HORSPOOL_PATTERN_LENGTH) {
+            return new BitMaskBytePattern(pattern);
+        }
+        // 尾部具有周期性时 Horspool 会严重退化
+        if (lastByteShift(pattern) < MIN_HORSPOOL_LAST_BYTE_SHIFT) {
+            return new BitMaskBytePattern(pattern);
+        }
+        var shift = HorspoolByteIndexer.buildShift(pattern);
+        if (averageShift(pattern, shift) >= MIN_HORSPOOL_AVERAGE_SHIFT) {
+            return new HorspoolBytePattern(pattern);
+        }
+        if (pattern.length > MAX_SINGLE_WORD_PATTERN_LENGTH) {
+            return new HorspoolBytePattern(pattern);
+        }
+        return new BitMaskBytePattern(pattern);
+    }
+
+    /// 编译忽略 ASCII 字母大小写的模式串.
+    ///
+    /// - 长度 0: [KMPBytePattern].
+    /// - 长度 1 且不是字母: [SingleByteIndexer].
+    /// - 其余情况: 忽略大小写的 [BitMaskBytePattern], 大小写折叠已合并到位掩码表中, 与区分大小写的查找速度相同.
+    public static BytePattern compileIgnoreCase(byte[] pattern) {
+        if (pattern.length == 0) {
+            return new KMPBytePattern(pattern);
+        }
+        if (pattern.length == 1 && !AsciiCase.isLetter(pattern[0])) {
+            return singleBytePattern(pattern[0]);
+        }
+        return new BitMaskBytePattern(pattern, true);
+    }
+
+    /// SingleByteIndexer 没有匹配状态, 所有查找直接共享同一个实例
+    private static BytePattern singleBytePattern(byte b) {
+        var indexer = new SingleByteIndexer(b);
+        return () -> indexer;
+    }
+
+    /// 模式串中每个字节 (按出现次数加权) 对应的跳跃距离的平均值.
+    private static int averageShift(byte[] pattern, int[] shift) {
+        var total = 0L;
+        for (var b : pattern) {
+            total += shift[b & 0xFF];
+        }
+        return (int) (total / pattern.length);
+    }
+
+    /// 模式串末尾字节在其余部分 (不含末尾) 中最后一次出现的位置 到 末尾的距离, 未出现则为模式串长度.
+    private static int lastByteShift(byte[] pattern) {
+        var last = pattern.length - 1;
+        for (int i = last - 1; i >= 0; i = i - 1) {
+            if (pattern[i] == pattern[last]) {
+                return last - i;
+            }
+        }
+        return pattern.length;
+    }
+
+}
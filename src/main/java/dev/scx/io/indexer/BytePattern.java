@@ -0,0 +1,17 @@
+package dev.scx.io.indexer;
+
+/// BytePattern
+///
+/// 编译后的模式串, 只包含不可变的查找表 (如 lps, mask, shift), 不包含任何匹配状态.
+///
+/// - 线程安全, 可以缓存为静态常量, 在多个线程 (连接) 之间共享, 避免每次查找都重新构建查找表.
+/// - 每次查找通过 [#newIndexer()] 创建只持有匹配状态的 [ByteIndexer] (无状态的匹配器可以直接返回共享实例).
+/// - 通常通过 [ByteIndexerFactory#compile(byte[])] 创建, 也可以直接创建具体实现, 如 [KMPBytePattern], [BitMaskBytePattern].
+///
+/// @author scx567888
+public interface BytePattern {
+
+    /// 创建新的 ByteIndexer, 返回的 ByteIndexer 仍然是非线程安全的, 只能在单个查找中使用.
+    ByteIndexer newIndexer();
+
+}
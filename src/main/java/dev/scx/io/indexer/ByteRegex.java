@@ -0,0 +1,523 @@
+package dev.scx.io.indexer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/// ByteRegex
+///
+/// 面向字节的正则表达式子集, 编译为 Thompson NFA, 供 [RegexByteIndexer] 使用.
+///
+/// 支持的语法:
+/// - 字面量: 普通字符 (非 ASCII 字符按 UTF-8 编码为多个字节), `\xHH`, `\r` `\n` `\t` `\f` `\0` 以及转义的元字符 (如 `\.` `\\`).
+/// - 字节类: `.` (任意字节, 包括 `\n`), `[...]` `[^...]` (支持范围 `a-z`), `\d` `\D` `\s` `\S` `\w` `\W` (均为 ASCII 语义).
+/// - 分组与选择: `(...)` `(?:...)` `|`.
+/// - 量词: `*` `+` `?` `{n}` `{n,}` `{n,m}`, 均为贪婪语义.
+///
+/// 不支持锚点, 反向引用, 非贪婪/占有量词以及环视.
+///
+/// @author scx567888
+final class ByteRegex {
+
+    /// 单个量词允许展开的最大次数
+    static final int MAX_REPEAT = 1000;
+
+    /// NFA 允许的最大状态数, 防止嵌套量词 (如 `(a{1000}){1000}`) 在编译时展开出过多状态
+    static final int MAX_STATES = 10000;
+
+    /// 消费一个字节的状态
+    static final int BYTE = 0;
+    /// 空转移分支
+    static final int SPLIT = 1;
+    /// 匹配成功
+    static final int MATCH = 2;
+
+    /// 状态类型
+    final int[] type;
+    /// BYTE 状态接受的字节集合, sets[state * 4 + (b >>> 6)] 的第 (b & 63) 位
+    final long[] sets;
+    /// BYTE 状态的下一状态 或 SPLIT 状态的第一个分支
+    final int[] out;
+    /// SPLIT 状态的第二个分支
+    final int[] out1;
+    final int start;
+    final int match;
+    final int stateCount;
+
+    private ByteRegex(Builder builder, int start) {
+        this.stateCount = builder.size;
+        this.type = Arrays.copyOf(builder.type, stateCount);
+        this.sets = Arrays.copyOf(builder.sets, stateCount * 4);
+        this.out = Arrays.copyOf(builder.out, stateCount);
+        this.out1 = Arrays.copyOf(builder.out1, stateCount);
+        this.start = start;
+        this.match = builder.match;
+    }
+
+    static ByteRegex compile(String regex) {
+        var node = new Parser(regex).parse();
+        if (nullable(node)) {
+            throw new IllegalArgumentException("regex must not match empty input: " + regex);
+        }
+        var builder = new Builder(regex);
+        var start = builder.compile(node, builder.match);
+        return new ByteRegex(builder, start);
+    }
+
+    boolean accepts(int state, int b) {
+        return (sets[(state << 2) | (b >>> 6)] & (1L << b)) != 0;
+    }
+
+    /// 按优先级顺序 (out 优先于 out1) 计算 state 的空转移闭包, 只输出 BYTE 和 MATCH 状态.
+    ///
+    /// @param seen  已访问标记, seen[s] == generation 表示已访问
+    /// @param stack 临时栈, 长度不小于 stateCount * 2 + 1
+    /// @param list  输出, 从 listLength 开始写入
+    /// @return 写入后的 listLength
+    int closure(int state, int[] seen, int generation, int[] stack, int[] list, int listLength) {
+        var top = 0;
+        stack[top] = state;
+        top = top + 1;
+        while (top > 0) {
+            top = top - 1;
+            var s = stack[top];
+            if (seen[s] == generation) {
+                continue;
+            }
+            seen[s] = generation;
+            if (type[s] == SPLIT) {
+                // 先压入 out1, 保证 out 先被处理
+                stack[top] = out1[s];
+                top = top + 1;
+                stack[top] = out[s];
+                top = top + 1;
+            } else {
+                list[listLength] = s;
+                listLength = listLength + 1;
+            }
+        }
+        return listLength;
+    }
+
+    private static boolean nullable(Node node) {
+        return switch (node) {
+            case ByteSetNode _ -> false;
+            case SeqNode seq -> {
+                for (var child : seq.children) {
+                    if (!nullable(child)) {
+                        yield false;
+                    }
+                }
+                yield true;
+            }
+            case AltNode alt -> {
+                for (var child : alt.children) {
+                    if (nullable(child)) {
+                        yield true;
+                    }
+                }
+                yield false;
+            }
+            case RepeatNode repeat -> repeat.min == 0 || nullable(repeat.child);
+        };
+    }
+
+    private sealed interface Node permits ByteSetNode, SeqNode, AltNode, RepeatNode {
+
+    }
+
+    private record ByteSetNode(long[] set) implements Node {
+
+    }
+
+    private record SeqNode(List<Node> children) implements Node {
+
+    }
+
+    private record AltNode(List<Node> children) implements Node {
+
+    }
+
+    /// max 为 -1 表示无上限
+    private record RepeatNode(Node child, int min, int max) implements Node {
+
+    }
+
+    /// 以 "后继优先" 的方式构建 NFA: compile(node, next) 返回 node 的入口状态, node 匹配完成后转到 next.
+    private static final class Builder {
+
+        private int[] type = new int[16];
+        private long[] sets = new long[16 * 4];
+        private int[] out = new int[16];
+        private int[] out1 = new int[16];
+        private int size = 0;
+        private final String regex;
+        private final int match;
+
+        private Builder(String regex) {
+            this.regex = regex;
+            this.match = add(MATCH, null, -1, -1);
+        }
+
+        private int add(int t, long[] set, int o, int o1) {
+            if (size == MAX_STATES) {
+                throw new IllegalArgumentException("regex expands to more than " + MAX_STATES + " states: " + regex);
+            }
+            if (size == type.length) {
+                var newLength = size * 2;
+                type = Arrays.copyOf(type, newLength);
+                sets = Arrays.copyOf(sets, newLength * 4);
+                out = Arrays.copyOf(out, newLength);
+                out1 = Arrays.copyOf(out1, newLength);
+            }
+            type[size] = t;
+            if (set != null) {
+                System.arraycopy(set, 0, sets, size * 4, 4);
+            }
+            out[size] = o;
+            out1[size] = o1;
+            size = size + 1;
+            return size - 1;
+        }
+
+        private int compile(Node node, int next) {
+            return switch (node) {
+                case ByteSetNode byteSet -> add(BYTE, byteSet.set, next, -1);
+                case SeqNode seq -> {
+                    for (int i = seq.children.size() - 1; i >= 0; i = i - 1) {
+                        next = compile(seq.children.get(i), next);
+                    }
+                    yield next;
+                }
+                case AltNode alt -> {
+                    var children = alt.children;
+                    var entry = compile(children.getLast(), next);
+                    for (int i = children.size() - 2; i >= 0; i = i - 1) {
+                        entry = add(SPLIT, null, compile(children.get(i), next), entry);
+                    }
+                    yield entry;
+                }
+                case RepeatNode repeat -> {
+                    if (repeat.max == -1) {
+                        // 循环: loop -> (child -> loop) | next
+                        var loop = add(SPLIT, null, -1, next);
+                        out[loop] = compile(repeat.child, loop);
+                        next = loop;
+                    } else {
+                        // 可选部分: 每一份都可以直接跳到末尾
+                        for (int i = repeat.min; i < repeat.max; i = i + 1) {
+                            next = add(SPLIT, null, compile(repeat.child, next), next);
+                        }
+                    }
+                    // 必选部分
+                    for (int i = 0; i < repeat.min; i = i + 1) {
+                        next = compile(repeat.child, next);
+                    }
+                    yield next;
+                }
+            };
+        }
+
+    }
+
+    private static final class Parser {
+
+        private final String regex;
+        private int pos;
+
+        private Parser(String regex) {
+            this.regex = regex;
+            this.pos = 0;
+        }
+
+        private Node parse() {
+            var node = parseAlt();
+            if (pos < regex.length()) {
+                throw error("unexpected '" + regex.charAt(pos) + "'");
+            }
+            return node;
+        }
+
+        private Node parseAlt() {
+            var children = new ArrayList<Node>();
+            children.add(parseSeq());
+            while (pos < regex.length() && regex.charAt(pos) == '|') {
+                pos = pos + 1;
+                children.add(parseSeq());
+            }
+            return children.size() == 1 ? children.getFirst() : new AltNode(children);
+        }
+
+        private Node parseSeq() {
+            var children = new ArrayList<Node>();
+            while (pos < regex.length()) {
+                var c = regex.charAt(pos);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                parseRepeat(children);
+            }
+            return children.size() == 1 ? children.getFirst() : new SeqNode(children);
+        }
+
+        private void parseRepeat(List<Node> children) {
+            var atomStart = children.size();
+            parseAtom(children);
+            // 非 ASCII 字面量会产生多个字节节点, 量词作用于整个字符
+            Node atom = children.size() - atomStart == 1 ? children.removeLast() : new SeqNode(new ArrayList<>(children.subList(atomStart, children.size())));
+            children.subList(atomStart, children.size()).clear();
+            var quantified = false;
+            while (pos < regex.length()) {
+                var c = regex.charAt(pos);
+                int min;
+                int max;
+                if (c == '*') {
+                    pos = pos + 1;
+                    min = 0;
+                    max = -1;
+                } else if (c == '+') {
+                    pos = pos + 1;
+                    min = 1;
+                    max = -1;
+                } else if (c == '?') {
+                    pos = pos + 1;
+                    min = 0;
+                    max = 1;
+                } else if (c == '{') {
+                    pos = pos + 1;
+                    min = parseInt();
+                    max = min;
+                    if (peek(',')) {
+                        pos = pos + 1;
+                        max = peek('}') ? -1 : parseInt();
+                    }
+                    expect('}');
+                    if (max != -1 && max < min) {
+                        throw error("invalid repeat range");
+                    }
+                    if (min > MAX_REPEAT || max > MAX_REPEAT) {
+                        throw error("repeat count exceeds " + MAX_REPEAT);
+                    }
+                } else {
+                    break;
+                }
+                if (quantified) {
+                    throw error("lazy, possessive or nested quantifiers are not supported");
+                }
+                quantified = true;
+                atom = new RepeatNode(atom, min, max);
+            }
+            children.add(atom);
+        }
+
+        private void parseAtom(List<Node> children) {
+            var c = regex.charAt(pos);
+            switch (c) {
+                case '(' -> {
+                    pos = pos + 1;
+                    if (regex.startsWith("?:", pos)) {
+                        pos = pos + 2;
+                    } else if (peek('?')) {
+                        throw error("unsupported group construct");
+                    }
+                    children.add(parseAlt());
+                    expect(')');
+                }
+                case '[' -> {
+                    pos = pos + 1;
+                    children.add(new ByteSetNode(parseClass()));
+                }
+                case '.' -> {
+                    pos = pos + 1;
+                    children.add(new ByteSetNode(new long[]{-1L, -1L, -1L, -1L}));
+                }
+                case '\\' -> {
+                    pos = pos + 1;
+                    var set = new long[4];
+                    parseEscape(set);
+                    children.add(new ByteSetNode(set));
+                }
+                case '*', '+', '?', '{' -> throw error("dangling quantifier '" + c + "'");
+                case '^', '$' -> throw error("anchors are not supported");
+                default -> {
+                    pos = pos + 1;
+                    if (c < 0x80) {
+                        children.add(new ByteSetNode(single(c)));
+                    } else {
+                        // 非 ASCII 字符按 UTF-8 编码 (处理代理对)
+                        var end = Character.isHighSurrogate(c) && pos < regex.length() ? pos + 1 : pos;
+                        var bytes = regex.substring(pos - 1, end).getBytes(StandardCharsets.UTF_8);
+                        pos = end;
+                        for (var b : bytes) {
+                            children.add(new ByteSetNode(single(b & 0xFF)));
+                        }
+                    }
+                }
+            }
+        }
+
+        private long[] parseClass() {
+            var set = new long[4];
+            var negate = peek('^');
+            if (negate) {
+                pos = pos + 1;
+            }
+            var first = true;
+            while (true) {
+                if (pos >= regex.length()) {
+                    throw error("unclosed character class");
+                }
+                var c = regex.charAt(pos);
+                if (c == ']' && !first) {
+                    pos = pos + 1;
+                    break;
+                }
+                first = false;
+                int low;
+                if (c == '\\') {
+                    pos = pos + 1;
+                    low = parseEscape(set);
+                    if (low == -1) {
+                        // \d \s \w 等已直接加入集合, 不能作为范围端点
+                        continue;
+                    }
+                } else {
+                    pos = pos + 1;
+                    low = classChar(c);
+                }
+                var high = low;
+                if (peek('-') && pos + 1 < regex.length() && regex.charAt(pos + 1) != ']') {
+                    pos = pos + 1;
+                    var d = regex.charAt(pos);
+                    pos = pos + 1;
+                    if (d == '\\') {
+                        high = parseEscape(new long[4]);
+                        if (high == -1) {
+                            throw error("invalid range in character class");
+                        }
+                    } else {
+                        high = classChar(d);
+                    }
+                    if (high < low) {
+                        throw error("invalid range in character class");
+                    }
+                }
+                for (int b = low; b <= high; b = b + 1) {
+                    set[b >>> 6] |= 1L << b;
+                }
+            }
+            if (negate) {
+                for (int i = 0; i < 4; i = i + 1) {
+                    set[i] = ~set[i];
+                }
+            }
+            return set;
+        }
+
+        private int classChar(char c) {
+            if (c >= 0x80) {
+                throw error("non-ASCII character in character class, use \\xHH instead");
+            }
+            return c;
+        }
+
+        /// 解析 '\' 之后的转义, 单字节转义返回该字节 (同时加入 set), 字节类转义返回 -1.
+        private int parseEscape(long[] set) {
+            if (pos >= regex.length()) {
+                throw error("trailing backslash");
+            }
+            var c = regex.charAt(pos);
+            pos = pos + 1;
+            var b = switch (c) {
+                case 'r' -> '\r';
+                case 'n' -> '\n';
+                case 't' -> '\t';
+                case 'f' -> '\f';
+                case '0' -> 0;
+                case 'x' -> {
+                    if (pos + 2 > regex.length()) {
+                        throw error("invalid \\x escape");
+                    }
+                    var hex = Character.digit(regex.charAt(pos), 16) << 4 | Character.digit(regex.charAt(pos + 1), 16);
+                    if (hex < 0) {
+                        throw error("invalid \\x escape");
+                    }
+                    pos = pos + 2;
+                    yield hex;
+                }
+                case 'd', 'D', 's', 'S', 'w', 'W' -> -1;
+                default -> {
+                    if (Character.isLetterOrDigit(c)) {
+                        throw error("unsupported escape \\" + c);
+                    }
+                    yield classChar(c);
+                }
+            };
+            if (b != -1) {
+                set[b >>> 6] |= 1L << b;
+                return b;
+            }
+            var classSet = switch (Character.toLowerCase(c)) {
+                case 'd' -> range('0', '9');
+                case 's' -> or(range('\t', '\r'), single(' '));
+                default -> or(or(range('a', 'z'), range('A', 'Z')), or(range('0', '9'), single('_')));
+            };
+            var negate = Character.isUpperCase(c);
+            for (int i = 0; i < 4; i = i + 1) {
+                set[i] |= negate ? ~classSet[i] : classSet[i];
+            }
+            return -1;
+        }
+
+        private int parseInt() {
+            var begin = pos;
+            while (pos < regex.length() && regex.charAt(pos) >= '0' && regex.charAt(pos) <= '9' && pos - begin < 9) {
+                pos = pos + 1;
+            }
+            if (begin == pos) {
+                throw error("expected number");
+            }
+            return Integer.parseInt(regex, begin, pos, 10);
+        }
+
+        private boolean peek(char c) {
+            return pos < regex.length() && regex.charAt(pos) == c;
+        }
+
+        private void expect(char c) {
+            if (!peek(c)) {
+                throw error("expected '" + c + "'");
+            }
+            pos = pos + 1;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at index " + pos + " in regex: " + regex);
+        }
+
+        private static long[] single(int b) {
+            var set = new long[4];
+            set[b >>> 6] |= 1L << b;
+            return set;
+        }
+
+        private static long[] range(int low, int high) {
+            var set = new long[4];
+            for (int b = low; b <= high; b = b + 1) {
+                set[b >>> 6] |= 1L << b;
+            }
+            return set;
+        }
+
+        private static long[] or(long[] a, long[] b) {
+            var set = new long[4];
+            for (int i = 0; i < 4; i = i + 1) {
+                set[i] = a[i] | b[i];
+            }
+            return set;
+        }
+
+    }
+
+}
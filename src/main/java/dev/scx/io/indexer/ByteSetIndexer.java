@@ -0,0 +1,120 @@
+package dev.scx.io.indexer;
+
+import dev.scx.io.ByteChunk;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+
+/// ByteSetIndexer
+///
+/// 查找字节集合中任意一个字节首次出现的位置, 适用于 CSV, JSON, 请求头等分词场景 (如 `,` `"` `\r` `\n`).
+///
+/// - 集合以 256 位成员表表示, 每个字节一次查表.
+/// - 集合不超过 [#MAX_SWAR_SET_SIZE] 个字节时, 使用 [SWARByteScanner] 每次比较 8 个字节.
+/// - 匹配成功后可通过 [#matchedByte()] 获取匹配到的字节.
+/// - 匹配长度恒为 1, 没有跨 chunk 状态.
+///
+/// @author scx567888
+public final class ByteSetIndexer implements ByteIndexer {
+
+    /// 使用 SWAR 快速路径的最大集合大小, 超过后逐字节查表更快
+    public static final int MAX_SWAR_SET_SIZE = 4;
+
+    /// 256 位成员表, 字节 b 对应 table[b >>> 6] 的第 (b & 63) 位
+    private final long[] table;
+    /// 每个成员字节的 broadcast 结果, 集合过大时为 null
+    private final long[] patterns;
+    private int matchedByte;
+
+    public ByteSetIndexer(byte... bytes) {
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("bytes must not be empty");
+        }
+        this.table = new long[4];
+        var size = 0;
+        for (var b : bytes) {
+            var idx = b & 0xFF;
+            var bit = 1L << idx;
+            if ((table[idx >>> 6] & bit) == 0) {
+                table[idx >>> 6] |= bit;
+                size = size + 1;
+            }
+        }
+        this.patterns = size <= MAX_SWAR_SET_SIZE ? buildPatterns(table, size) : null;
+        this.matchedByte = -1;
+    }
+
+    private static long[] buildPatterns(long[] table, int size) {
+        var patterns = new long[size];
+        var i = 0;
+        for (int b = 0; b < 256; b = b + 1) {
+            if ((table[b >>> 6] & (1L << b)) != 0) {
+                patterns[i] = SWARByteScanner.broadcast((byte) b);
+                i = i + 1;
+            }
+        }
+        return patterns;
+    }
+
+    public boolean contains(byte b) {
+        var idx = b & 0xFF;
+        return (table[idx >>> 6] & (1L << idx)) != 0;
+    }
+
+    @Override
+    public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+        var bytes = chunk.bytes;
+        var from = chunk.start + start;
+        var to = chunk.start + end;
+
+        int i;
+        if (patterns != null) {
+            // SWAR 查找
+            i = SWARByteScanner.indexOfAny(bytes, from, to, patterns, table);
+        } else {
+            i = indexOfTable(bytes, from, to);
+        }
+
+        if (i != -1) {
+            matchedByte = bytes[i] & 0xFF;
+            // 绝对索引 -> 相对索引
+            return packFullMatch(i - from, 1);
+        }
+        return NO_MATCH_PACKED;
+    }
+
+    private int indexOfTable(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i = i + 1) {
+            var b = bytes[i] & 0xFF;
+            if ((table[b >>> 6] & (1L << b)) != 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /// 最近一次完全匹配的字节 (0 - 255), 尚未匹配时返回 -1.
+    public int matchedByte() {
+        return matchedByte;
+    }
+
+    @Override
+    public boolean isEmptyPattern() {
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        matchedByte = -1;
+    }
+
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
+}
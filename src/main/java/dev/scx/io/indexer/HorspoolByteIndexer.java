@@ -0,0 +1,148 @@
+package dev.scx.io.indexer;
+
+import dev.scx.io.ByteChunk;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+
+/// HorspoolByteIndexer
+///
+/// Boyer-Moore-Horspool 查找, 根据窗口末尾字节跳过不可能匹配的位置, 模式串越长, 平均跳跃距离越大.
+/// 适合较长且字节分布较分散的模式串 (如 multipart boundary).
+///
+/// 跨 chunk 匹配:
+/// - chunk 结束时, 只保存 "chunk 尾部与模式串前缀重合的最长长度" 作为状态, 而不保存任何字节 (该前缀就是模式串本身).
+/// - 下一个 chunk 开头先以 KMP 方式逐字节推进这段部分匹配, 直到候选起点完全落入当前 chunk 后, 再切换回 Horspool 跳跃查找.
+///
+/// 查找表可以预先编译为 [HorspoolBytePattern] 并在多个线程之间共享.
+///
+/// @author scx567888
+public final class HorspoolByteIndexer implements ByteIndexer {
+
+    private final byte[] pattern;
+    private final int[] shift;
+    private final int[] lps;
+    private int matchedLength;
+
+    public HorspoolByteIndexer(byte[] pattern) {
+        this(new HorspoolBytePattern(pattern));
+    }
+
+    /// 使用预先编译的模式串, 不会重新构建跳转表
+    public HorspoolByteIndexer(HorspoolBytePattern compiled) {
+        this.pattern = compiled.pattern;
+        this.shift = compiled.shift;// 坏字符跳转表
+        this.lps = compiled.lps;// 部分匹配表, 用于跨 chunk 的部分匹配
+        this.matchedLength = 0; // 跨 chunk 的已匹配前缀长度
+    }
+
+    public static int[] buildShift(byte[] pattern) {
+        var shift = new int[256];
+        var last = pattern.length - 1;
+        // 未出现在模式串中 (末尾字节除外) 的字节, 可以直接跳过整个模式串长度
+        for (int i = 0; i < 256; i = i + 1) {
+            shift[i] = pattern.length;
+        }
+        for (int i = 0; i < last; i = i + 1) {
+            shift[pattern[i] & 0xFF] = last - i;
+        }
+        return shift;
+    }
+
+    /// 前提条件:
+    /// - pattern.length > 0
+    /// - 空匹配模式不在本实现的处理范围内, 必须由调用者提前判断, 例如通过 isEmptyPattern().
+    ///
+    /// 若违反此前提, indexOf 的行为未定义.
+    @Override
+    public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int from, int to) {
+
+        var bytes = chunk.bytes;
+        var start = chunk.start + from;
+        var length = to - from;
+        var last = pattern.length - 1;
+
+        var i = 0;
+
+        // 1, 继续上一个 chunk 遗留的部分匹配 (KMP), 直到部分匹配的起点落入当前 chunk (i - matchedLength >= 0)
+        while (matchedLength > i) {
+
+            if (i == length) {
+                return PARTIAL_MATCH_PACKED;
+            }
+
+            var currentByte = bytes[start + i];
+
+            while (matchedLength > 0 && currentByte != pattern[matchedLength]) {
+                matchedLength = lps[matchedLength - 1];
+            }
+
+            if (currentByte == pattern[matchedLength]) {
+                matchedLength = matchedLength + 1;
+            }
+
+            i = i + 1;
+
+            if (matchedLength == pattern.length) {
+                // 重置 matchedLength, 保证下次匹配
+                matchedLength = 0;
+                // 起点可能位于之前的 chunk, 此时为负数索引
+                return packFullMatch(i - pattern.length, pattern.length);
+            }
+        }
+
+        // 2, Horspool 查找, pos 为当前窗口在 chunk 中的起点
+        var pos = i - matchedLength;
+        matchedLength = 0;
+
+        var limit = length - pattern.length;
+
+        while (pos <= limit) {
+            var j = last;
+            while (j >= 0 && bytes[start + pos + j] == pattern[j]) {
+                j = j - 1;
+            }
+            if (j < 0) {
+                return packFullMatch(pos, pattern.length);
+            }
+            pos = pos + shift[bytes[start + pos + last] & 0xFF];
+        }
+
+        // 3, 剩余的尾部不足一个窗口, 计算其与模式串前缀重合的最长长度, 作为跨 chunk 状态.
+        // 这里尾部长度一定小于 pattern.length, 所以不可能产生完全匹配.
+        for (int k = pos; k < length; k = k + 1) {
+
+            var currentByte = bytes[start + k];
+
+            while (matchedLength > 0 && currentByte != pattern[matchedLength]) {
+                matchedLength = lps[matchedLength - 1];
+            }
+
+            if (currentByte == pattern[matchedLength]) {
+                matchedLength = matchedLength + 1;
+            }
+        }
+
+        return matchedLength == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    @Override
+    public boolean isEmptyPattern() {
+        return pattern.length == 0;
+    }
+
+    @Override
+    public void reset() {
+        matchedLength = 0;
+    }
+
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
+}
@@ -0,0 +1,26 @@
+package dev.scx.io.indexer;
+
+/// HorspoolBytePattern
+///
+/// [HorspoolByteIndexer] 的编译结果 (坏字符跳转表 和 部分匹配表), 不可变, 线程安全.
+///
+/// @author scx567888
+public final class HorspoolBytePattern implements BytePattern {
+
+    final byte[] pattern;
+    final int[] shift;
+    final int[] lps;
+
+    public HorspoolBytePattern(byte[] pattern) {
+        // 复制一份, 防止调用者修改原数组
+        this.pattern = pattern.clone();
+        this.shift = HorspoolByteIndexer.buildShift(this.pattern);
+        this.lps = KMPByteIndexer.buildLPS(this.pattern);
+    }
+
+    @Override
+    public HorspoolByteIndexer newIndexer() {
+        return new HorspoolByteIndexer(this);
+    }
+
+}
@@ -3,19 +3,75 @@ package dev.scx.io.indexer;
 import dev.scx.io.ByteChunk;
 
 import static dev.scx.io.indexer.StatusByteMatchResult.*;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
 
 /// KMPByteIndexer
 ///
+/// 支持两种模式:
+/// - LPS 模式 (默认): 失配时沿部分匹配表回退, 在重复性较强的数据 (如大量 `-` 组成的 boundary) 上单字节可能回退多次.
+/// - DFA 模式: 预先将模式串编译为 256 * m 的状态转移表, 每个字节恰好一次查表, 没有依赖数据的回退循环.
+///   转移表超过 [#MAX_DFA_TABLE_LENGTH] 时 (即模式串过长) 自动退回 LPS 模式.
+///
+/// 支持忽略 ASCII 大小写:
+/// - 模式串在构造时统一折叠为小写.
+/// - LPS 模式下逐字节折叠后再比较.
+/// - DFA 模式下大写字母的转移直接复用小写字母的转移, 查找过程没有额外开销.
+///
+/// 可选的稀有字节前置过滤 (prefilter):
+/// - 根据 [ByteFrequency] 选出模式串中最稀有的字节, 处于初始状态 (没有部分匹配) 时, 使用 [SWARByteScanner] 直接跳到该字节的下一次出现处.
+/// - 只在候选位置附近运行完整的匹配过程, 重新回到初始状态后继续跳跃, 部分匹配状态照常跨 chunk 保存.
+/// - 适合模式串中含有稀有字节, 而数据中大部分位置都不可能成为起点的场景; 模式串全部由常见字节组成时可能反而变慢.
+///
+/// 查找表可以预先编译为 [KMPBytePattern] 并在多个线程之间共享, 此时每次查找只需创建新的 KMPByteIndexer (只持有匹配状态).
+///
 /// @author scx567888
 public final class KMPByteIndexer implements ByteIndexer {
 
+    /// DFA 转移表的最大长度 (int 个数), 即 DFA 模式支持的模式串长度上限为 256
+    public static final int MAX_DFA_TABLE_LENGTH = 256 * 256;
+
     private final byte[] pattern;
+    private final boolean ignoreCase;
     private final int[] lps;
+    /// DFA 转移表, dfa[state * 256 + byte] = 下一状态, 未启用 DFA 模式时为 null
+    private final int[] dfa;
+    private final int rareOffset;
+    private final byte rareByte1;
+    private final byte rareByte2;
     private int matchedLength;
 
     public KMPByteIndexer(byte[] pattern) {
-        this.pattern = pattern;
-        this.lps = buildLPS(pattern);// 创建部分匹配表
+        this(pattern, false);
+    }
+
+    /// @param useDFA 是否尝试使用 DFA 模式, 模式串过长时仍会退回 LPS 模式
+    public KMPByteIndexer(byte[] pattern, boolean useDFA) {
+        this(pattern, useDFA, false);
+    }
+
+    /// @param useDFA     是否尝试使用 DFA 模式, 模式串过长时仍会退回 LPS 模式
+    /// @param ignoreCase 是否忽略 ASCII 字母的大小写
+    public KMPByteIndexer(byte[] pattern, boolean useDFA, boolean ignoreCase) {
+        this(new KMPBytePattern(pattern, useDFA, ignoreCase));
+    }
+
+    /// @param useDFA       是否尝试使用 DFA 模式, 模式串过长时仍会退回 LPS 模式
+    /// @param ignoreCase   是否忽略 ASCII 字母的大小写
+    /// @param usePrefilter 是否启用稀有字节前置过滤
+    public KMPByteIndexer(byte[] pattern, boolean useDFA, boolean ignoreCase, boolean usePrefilter) {
+        this(new KMPBytePattern(pattern, useDFA, ignoreCase, usePrefilter));
+    }
+
+    /// 使用预先编译的模式串, 不会重新构建查找表
+    public KMPByteIndexer(KMPBytePattern compiled) {
+        this.pattern = compiled.pattern;
+        this.ignoreCase = compiled.ignoreCase;
+        this.lps = compiled.lps;
+        this.dfa = compiled.dfa;
+        this.rareOffset = compiled.rareOffset;
+        this.rareByte1 = compiled.rareByte1;
+        this.rareByte2 = compiled.rareByte2;
         this.matchedLength = 0; // 模式串索引
     }
 
@@ -42,6 +98,38 @@ public final class KMPByteIndexer implements ByteIndexer {
         return lps;
     }
 
+    /// 构建 KMP 自动机的状态转移表.
+    ///
+    /// 状态 j 表示已匹配模式串的前 j 个字节 (0 <= j < m), 转移结果为 m 表示完全匹配.
+    public static int[] buildDFA(byte[] pattern) {
+        return buildDFA(pattern, false);
+    }
+
+    /// @param ignoreCase 为 true 时, pattern 必须已经折叠为小写
+    public static int[] buildDFA(byte[] pattern, boolean ignoreCase) {
+        var dfa = new int[pattern.length << 8];
+        dfa[pattern[0] & 0xFF] = 1;
+        // x 为 "失配后应回退到的状态", 即 pattern[1, j) 在自动机上运行后的状态
+        var x = 0;
+        for (int j = 1; j < pattern.length; j = j + 1) {
+            var b = pattern[j] & 0xFF;
+            // 失配的转移与状态 x 相同
+            System.arraycopy(dfa, x << 8, dfa, j << 8, 256);
+            // 匹配的转移前进一步
+            dfa[(j << 8) | b] = j + 1;
+            x = dfa[(x << 8) | b];
+        }
+        if (ignoreCase) {
+            // 大写字母与对应的小写字母转移相同
+            for (int j = 0; j < pattern.length; j = j + 1) {
+                for (int c = 'A'; c <= 'Z'; c = c + 1) {
+                    dfa[(j << 8) | c] = dfa[(j << 8) | (c | 0x20)];
+                }
+            }
+        }
+        return dfa;
+    }
+
     /// 前提条件:
     /// - pattern.length > 0
     /// - 空匹配模式不在本实现的处理范围内, 必须由调用者提前判断, 例如通过 isEmptyPattern().
@@ -49,11 +137,69 @@ public final class KMPByteIndexer implements ByteIndexer {
     /// 若违反此前提, indexOf 的行为未定义.
     @Override
     public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+        var bytes = chunk.bytes;
+        var from = chunk.start + start;
+        var to = chunk.start + end;
+        if (rareOffset != -1) {
+            return indexOfPrefilter(bytes, from, to);
+        }
+        return indexOf0(bytes, from, to);
+    }
+
+    private long indexOf0(byte[] bytes, int from, int to) {
+        if (dfa != null) {
+            return indexOfDFA(bytes, from, to);
+        }
+        if (ignoreCase) {
+            return indexOfIgnoreCase(bytes, from, to);
+        }
+        return indexOfLPS(bytes, from, to);
+    }
+
+    /// 前置过滤: 处于初始状态时, 先扫描稀有字节, 直接跳到下一个候选起点 (稀有字节位置 - rareOffset),
+    /// 再以模式串长度为窗口交给完整的匹配过程, 直到重新回到初始状态.
+    ///
+    /// 处于初始状态时 不存在任何进行中的部分匹配, 而起点位于候选起点之前的位置都不可能匹配, 所以跳过它们不会改变结果.
+    private long indexOfPrefilter(byte[] bytes, int from, int to) {
+        var i = from;
+        while (i < to) {
+            if (matchedLength == 0) {
+                var r = indexOfRareByte(bytes, i + rareOffset, to);
+                // 没有找到时, 只有最后 rareOffset 个字节可能是跨 chunk 匹配的起点
+                i = r != -1 ? r - rareOffset : max(i, to - rareOffset);
+                if (i == to) {
+                    break;
+                }
+            }
+            var windowEnd = min(to, i + pattern.length);
+            var result = indexOf0(bytes, i, windowEnd);
+            if (isFullMatch(result)) {
+                // 窗口内的相对索引 -> 相对于 from 的索引
+                return packFullMatch(unpackIndex(result) + (i - from), unpackMatchedLength(result));
+            }
+            i = windowEnd;
+        }
+        return matchedLength == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private int indexOfRareByte(byte[] bytes, int from, int to) {
+        if (rareByte1 == rareByte2) {
+            return SWARByteScanner.indexOf(bytes, from, to, rareByte1);
+        }
+        return SWARByteScanner.indexOfAny(bytes, from, to, rareByte1, rareByte2);
+    }
+
+    private long indexOfLPS(byte[] bytes, int from, int to) {
 
         //KMP 查找
-        for (int i = 0; i < chunk.length; i = i + 1) {
+        for (int i = from; i < to; i = i + 1) {
 
-            var currentByte = chunk.get(i);
+            var currentByte = bytes[i];
 
             while (matchedLength > 0 && currentByte != pattern[matchedLength]) {
                 matchedLength = lps[matchedLength - 1];
@@ -67,11 +213,59 @@ public final class KMPByteIndexer implements ByteIndexer {
                 // 重置 matchedLength, 保证下次匹配
                 matchedLength = 0;
                 // 当前索引 - 回退量 (模式串长度 - 1)
-                return fullMatch(i - (pattern.length - 1), pattern.length);
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
             }
         }
 
-        return matchedLength == 0 ? NO_MATCH_RESULT : PARTIAL_MATCH_RESULT;
+        return matchedLength == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private long indexOfIgnoreCase(byte[] bytes, int from, int to) {
+
+        //KMP 查找, 逐字节折叠为小写
+        for (int i = from; i < to; i = i + 1) {
+
+            var currentByte = AsciiCase.toLowerCase(bytes[i]);
+
+            while (matchedLength > 0 && currentByte != pattern[matchedLength]) {
+                matchedLength = lps[matchedLength - 1];
+            }
+
+            if (currentByte == pattern[matchedLength]) {
+                matchedLength = matchedLength + 1;
+            }
+
+            if (matchedLength == pattern.length) {
+                // 重置 matchedLength, 保证下次匹配
+                matchedLength = 0;
+                // 当前索引 - 回退量 (模式串长度 - 1)
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
+            }
+        }
+
+        return matchedLength == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    private long indexOfDFA(byte[] bytes, int from, int to) {
+
+        var state = matchedLength;
+
+        // DFA 查找, 每个字节一次查表
+        for (int i = from; i < to; i = i + 1) {
+
+            state = dfa[(state << 8) | (bytes[i] & 0xFF)];
+
+            if (state == pattern.length) {
+                // 重置 matchedLength, 保证下次匹配
+                matchedLength = 0;
+                // 当前索引 - 回退量 (模式串长度 - 1)
+                return packFullMatch(i - from - (pattern.length - 1), pattern.length);
+            }
+        }
+
+        matchedLength = state;
+
+        return state == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
     }
 
     @Override
@@ -84,4 +278,9 @@ public final class KMPByteIndexer implements ByteIndexer {
         matchedLength = 0;
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
 }
@@ -0,0 +1,53 @@
+package dev.scx.io.indexer;
+
+import static dev.scx.io.indexer.KMPByteIndexer.MAX_DFA_TABLE_LENGTH;
+
+/// KMPBytePattern
+///
+/// [KMPByteIndexer] 的编译结果 (部分匹配表, 可选的 DFA 转移表 和 前置过滤使用的稀有字节), 不可变, 线程安全.
+///
+/// @author scx567888
+public final class KMPBytePattern implements BytePattern {
+
+    /// 忽略大小写时已折叠为小写
+    final byte[] pattern;
+    final boolean ignoreCase;
+    final int[] lps;
+    /// DFA 转移表, 未启用 DFA 模式时为 null
+    final int[] dfa;
+    /// 前置过滤使用的稀有字节在模式串中的索引, 未启用前置过滤时为 -1
+    final int rareOffset;
+    /// 稀有字节的两种形式 (忽略大小写时为小写和大写, 否则两者相同)
+    final byte rareByte1;
+    final byte rareByte2;
+
+    public KMPBytePattern(byte[] pattern) {
+        this(pattern, false, false);
+    }
+
+    /// @param useDFA     是否尝试使用 DFA 模式, 模式串过长时仍会退回 LPS 模式
+    /// @param ignoreCase 是否忽略 ASCII 字母的大小写
+    public KMPBytePattern(byte[] pattern, boolean useDFA, boolean ignoreCase) {
+        this(pattern, useDFA, ignoreCase, false);
+    }
+
+    /// @param useDFA       是否尝试使用 DFA 模式, 模式串过长时仍会退回 LPS 模式
+    /// @param ignoreCase   是否忽略 ASCII 字母的大小写
+    /// @param usePrefilter 是否启用稀有字节前置过滤, 参考 [KMPByteIndexer]
+    public KMPBytePattern(byte[] pattern, boolean useDFA, boolean ignoreCase, boolean usePrefilter) {
+        // 复制一份, 防止调用者修改原数组
+        this.pattern = ignoreCase ? AsciiCase.toLowerCase(pattern) : pattern.clone();
+        this.ignoreCase = ignoreCase;
+        this.lps = KMPByteIndexer.buildLPS(this.pattern);
+        this.dfa = useDFA && pattern.length > 0 && pattern.length * 256L <= MAX_DFA_TABLE_LENGTH ? KMPByteIndexer.buildDFA(this.pattern, ignoreCase) : null;
+        this.rareOffset = usePrefilter ? ByteFrequency.rarestIndex(this.pattern, ignoreCase) : -1;
+        this.rareByte1 = rareOffset != -1 ? this.pattern[rareOffset] : 0;
+        this.rareByte2 = ignoreCase ? AsciiCase.toUpperCase(rareByte1) : rareByte1;
+    }
+
+    @Override
+    public KMPByteIndexer newIndexer() {
+        return new KMPByteIndexer(this);
+    }
+
+}
@@ -8,6 +8,8 @@ import static dev.scx.io.indexer.StatusByteMatchResult.*;
 ///
 /// 可同时匹配 `\r\n` 或 `\n` .
 ///
+/// 未处于匹配状态时, 使用 [SWARByteScanner] 每次比较 8 个字节, 跳过所有既不是 `\r` 也不是 `\n` 的字节.
+///
 /// @author scx567888
 public final class LineBreakByteIndexer implements ByteIndexer {
 
@@ -19,34 +21,47 @@ public final class LineBreakByteIndexer implements ByteIndexer {
 
     @Override
     public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+
+        var bytes = chunk.bytes;
+        var from = chunk.start + start;
+        var to = chunk.start + end;
 
-        for (int i = 0; i < chunk.length; i = i + 1) {
+        // 绝对索引
+        var i = from;
 
-            var currentByte = chunk.get(i);
+        while (i < to) {
 
             // 未曾匹配 或者 已经处于匹配成功状态
             if (matchedLength == 0) {
-                if (currentByte == '\n') { // \n 匹配成功
-                    matchedLength = 0; // 重置状态
-                    return fullMatch(i, 1);
-                } else if (currentByte == '\r') {
-                    matchedLength = 1; // 暂存状态, 等待 \n
-                } else {
-                    matchedLength = 0; // 重置匹配
+                // 直接跳到下一个 \r 或 \n
+                i = SWARByteScanner.indexOfAny(bytes, i, to, (byte) '\n', (byte) '\r');
+                if (i == -1) {
+                    return NO_MATCH_PACKED;
+                }
+                if (bytes[i] == '\n') { // \n 匹配成功
+                    return packFullMatch(i - from, 1);
                 }
-            } else if (matchedLength == 1) {
-                if (currentByte == '\n') { // \r\n 匹配成功
+                matchedLength = 1; // 暂存状态, 等待 \n
+            } else {
+                var currentByte = bytes[i];
+                if (currentByte == '\n') { // \r\n 匹配成功 (\r 可能位于上一个 chunk, 此时索引为 -1)
                     matchedLength = 0; // 重置状态
-                    return fullMatch(i - 1, 2);
-                } else if (currentByte == '\r') {
-                    matchedLength = 1; // 当前字符又是 \r, 重启匹配
-                } else {
+                    return packFullMatch(i - from - 1, 2);
+                } else if (currentByte != '\r') {
                     matchedLength = 0; // 重置匹配
                 }
+                // 当前字符又是 \r, 保持 matchedLength = 1, 重启匹配
             }
+
+            i = i + 1;
         }
 
-        return matchedLength == 0 ? NO_MATCH_RESULT : PARTIAL_MATCH_RESULT;
+        return matchedLength == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
     }
 
     @Override
@@ -59,4 +74,9 @@ public final class LineBreakByteIndexer implements ByteIndexer {
         matchedLength = 0;
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
 }
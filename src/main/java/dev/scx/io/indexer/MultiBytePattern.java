@@ -0,0 +1,127 @@
+package dev.scx.io.indexer;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/// MultiBytePattern
+///
+/// [MultiPatternByteIndexer] 的编译结果 (Aho-Corasick 自动机), 不可变, 线程安全.
+///
+/// @author scx567888
+public final class MultiBytePattern implements BytePattern {
+
+    final byte[][] patterns;
+    /// 状态转移表, next[state * 256 + byte] = 下一状态
+    final int[] next;
+    /// 每个状态需要报告的模式串索引, -1 表示无
+    final int[] output;
+
+    public MultiBytePattern(byte[]... patterns) {
+        if (patterns.length == 0) {
+            throw new IllegalArgumentException("patterns must not be empty");
+        }
+        for (var pattern : patterns) {
+            if (pattern.length == 0) {
+                throw new IllegalArgumentException("MultiPatternByteIndexer does not support empty pattern");
+            }
+        }
+        // 复制一份, 防止调用者修改原数组
+        this.patterns = new byte[patterns.length][];
+        for (int i = 0; i < patterns.length; i = i + 1) {
+            this.patterns[i] = patterns[i].clone();
+        }
+        var stateCount = countStates(this.patterns);
+        this.next = new int[stateCount * 256];
+        this.output = new int[stateCount];
+        buildAutomaton(this.patterns, next, output);
+    }
+
+    /// 计算 Trie 的节点数量 (含根节点)
+    private static int countStates(byte[][] patterns) {
+        // key = 父状态 << 8 | 字节
+        var children = new HashMap<Long, Integer>();
+        var stateCount = 1;
+        for (var pattern : patterns) {
+            var s = 0;
+            for (var b : pattern) {
+                var key = ((long) s << 8) | (b & 0xFF);
+                var child = children.get(key);
+                if (child == null) {
+                    child = stateCount;
+                    stateCount = stateCount + 1;
+                    children.put(key, child);
+                }
+                s = child;
+            }
+        }
+        return stateCount;
+    }
+
+    private static void buildAutomaton(byte[][] patterns, int[] next, int[] output) {
+        var stateCount = output.length;
+
+        // 1, 构建 Trie, 尚未确定的转移用 -1 表示
+        Arrays.fill(next, -1);
+        Arrays.fill(output, -1);
+        var newState = 1;
+        for (int p = 0; p < patterns.length; p = p + 1) {
+            var s = 0;
+            for (var b : patterns[p]) {
+                var idx = (s << 8) | (b & 0xFF);
+                if (next[idx] == -1) {
+                    next[idx] = newState;
+                    newState = newState + 1;
+                }
+                s = next[idx];
+            }
+            // 重复的模式串以第一个为准
+            if (output[s] == -1) {
+                output[s] = p;
+            }
+        }
+
+        // 2, BFS 计算失配指针, 并将其合并到转移表中
+        var fail = new int[stateCount];
+        var queue = new int[stateCount];
+        var head = 0;
+        var tail = 0;
+
+        for (int c = 0; c < 256; c = c + 1) {
+            var child = next[c];
+            if (child == -1) {
+                next[c] = 0;
+            } else {
+                fail[child] = 0;
+                queue[tail] = child;
+                tail = tail + 1;
+            }
+        }
+
+        while (head < tail) {
+            var s = queue[head];
+            head = head + 1;
+            // 自身没有结束的模式串时, 报告失配链上最近的 (也就是最长的后缀模式串)
+            if (output[s] == -1) {
+                output[s] = output[fail[s]];
+            }
+            for (int c = 0; c < 256; c = c + 1) {
+                var idx = (s << 8) | c;
+                var child = next[idx];
+                var fallback = next[(fail[s] << 8) | c];
+                if (child == -1) {
+                    next[idx] = fallback;
+                } else {
+                    fail[child] = fallback;
+                    queue[tail] = child;
+                    tail = tail + 1;
+                }
+            }
+        }
+    }
+
+    @Override
+    public MultiPatternByteIndexer newIndexer() {
+        return new MultiPatternByteIndexer(this);
+    }
+
+}
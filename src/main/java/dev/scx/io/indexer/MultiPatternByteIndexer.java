@@ -0,0 +1,96 @@
+package dev.scx.io.indexer;
+
+import dev.scx.io.ByteChunk;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+
+/// MultiPatternByteIndexer
+///
+/// 基于 Aho-Corasick 自动机的多模式串查找, 每个字节只需一次查表, 与模式串数量无关.
+///
+/// - 自动机在构造时编译为完整的状态转移表 (扁平 int 数组, 状态数 * 256), 失配回退已预先合并到转移表中.
+/// - 以 "结束位置最早" 的匹配为准; 若多个模式串在同一位置结束, 以最长的为准 (即起点最早的).
+/// - 匹配成功后可通过 [#matchedPatternIndex()] 获取匹配到的模式串在构造参数中的索引.
+///
+/// 自动机可以预先编译为 [MultiBytePattern] 并在多个线程之间共享, 每次查找只需创建新的 MultiPatternByteIndexer (只持有匹配状态).
+///
+/// 注意: 转移表大小为 (所有模式串长度之和 + 1) * 256 个 int, 不适合数量巨大的模式串集合.
+///
+/// @author scx567888
+public final class MultiPatternByteIndexer implements ByteIndexer {
+
+    private final byte[][] patterns;
+    /// 状态转移表, next[state * 256 + byte] = 下一状态
+    private final int[] next;
+    /// 每个状态需要报告的模式串索引, -1 表示无
+    private final int[] output;
+    private int state;
+    private int matchedPatternIndex;
+
+    public MultiPatternByteIndexer(byte[]... patterns) {
+        this(new MultiBytePattern(patterns));
+    }
+
+    public MultiPatternByteIndexer(MultiBytePattern compiled) {
+        this.patterns = compiled.patterns;
+        this.next = compiled.next;
+        this.output = compiled.output;
+        this.state = 0;
+        this.matchedPatternIndex = -1;
+    }
+
+    /// 前提条件:
+    /// - 所有 pattern.length > 0 (构造时已校验)
+    @Override
+    public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+
+        var bytes = chunk.bytes;
+        var from = chunk.start + start;
+        var to = chunk.start + end;
+
+        for (int i = from; i < to; i = i + 1) {
+
+            state = next[(state << 8) | (bytes[i] & 0xFF)];
+
+            var patternIndex = output[state];
+
+            if (patternIndex != -1) {
+                // 重置 state, 保证下次匹配
+                state = 0;
+                matchedPatternIndex = patternIndex;
+                var matchedLength = patterns[patternIndex].length;
+                // 当前索引 - 回退量 (模式串长度 - 1), 可能位于之前的 chunk
+                return packFullMatch(i - from - (matchedLength - 1), matchedLength);
+            }
+        }
+
+        return state == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    /// 最近一次完全匹配的模式串索引 (对应构造参数中的顺序), 尚未匹配时返回 -1.
+    public int matchedPatternIndex() {
+        return matchedPatternIndex;
+    }
+
+    @Override
+    public boolean isEmptyPattern() {
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        state = 0;
+        matchedPatternIndex = -1;
+    }
+
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
+}
@@ -0,0 +1,257 @@
+package dev.scx.io.indexer;
+
+import dev.scx.io.ByteChunk;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+
+/// RegexByteIndexer
+///
+/// 基于字节正则表达式的查找, 语法参考 [ByteRegex], 例如 `\r?\n\r?\n`, `[0-9]+;`.
+///
+/// 匹配语义:
+/// - 以 "结束位置最早" 的匹配为准; 若多个匹配在同一位置结束, 以起点最早的 (即最长的) 为准.
+///   即匹配一旦可以完成就立即报告, 不会为了贪婪量词向后继续等待数据 (如 `a+` 在 `aaa` 中匹配第一个 `a`).
+/// - 不允许可以匹配空数据的表达式 (如 `a*`), 构造时抛出 IllegalArgumentException, 所以 isEmptyPattern() 恒为 false.
+/// - 单个量词最多展开 1000 次, 整个表达式最多展开为 10000 个 NFA 状态 (如 `(a{1000}){1000}` 会超出), 超出时构造抛出 IllegalArgumentException.
+/// - matchedLength 为实际匹配的长度, 起点可能位于之前的 chunk, 此时为负数索引.
+///
+/// 实现:
+/// - 表达式编译为 Thompson NFA, 查找时按需构建 DFA (惰性子集构造), 每个 DFA 状态是一个按起点先后排列的 NFA 状态列表.
+/// - 每条 DFA 转移同时记录 "目标列表中的每个 NFA 状态来自源列表中的哪一项", 以此在每个字节上传递各线程的起点,
+///   无需回溯或保留已经扫描过的数据, 因此可以跨 chunk 匹配.
+/// - DFA 状态数量超过 [#MAX_DFA_STATES] 时清空缓存重新构建, 以限制内存占用.
+///
+/// @author scx567888
+public final class RegexByteIndexer implements ByteIndexer {
+
+    /// 缓存的 DFA 状态数量上限
+    public static final int MAX_DFA_STATES = 4096;
+
+    private static final int[] EMPTY_LIST = new int[0];
+
+    private final String regex;
+    private final ByteRegex nfa;
+    /// 起始状态的空转移闭包, 每个字节位置都会以此启动新线程
+    private final int[] startList;
+
+    /// 以下为惰性构建的 DFA
+    /// key 为 NFA 状态列表, value 为 DFA 状态 id
+    private final HashMap<StateKey, Integer> stateIds;
+    /// DFA 状态 id -> NFA 状态列表
+    private final ArrayList<int[]> stateLists;
+    /// DFA 状态 id -> MATCH 在列表中的位置, -1 表示不是接受状态
+    private int[] acceptIndex;
+    /// 状态转移表, next[state * 256 + byte] = 下一状态, -1 表示尚未构建
+    private int[] next;
+    /// 与 next 对应的来源映射, 目标列表第 k 项来自源列表的第 sourceMaps[t][k] 项, -1 表示当前位置新启动的线程
+    private int[][] sourceMaps;
+
+    /// 构建时使用的临时数组
+    private final int[] seen;
+    private final int[] stack;
+    private final int[] buffer;
+    private final int[] sourceBuffer;
+    private int generation;
+
+    /// 当前 DFA 状态 (0 为空列表, 即完全未匹配)
+    private int state;
+    /// 当前 DFA 状态中每个 NFA 状态 (线程) 的起点, 相对于当前 chunk 起点
+    private int[] starts;
+    private int[] nextStarts;
+
+    public RegexByteIndexer(String regex) {
+        this.regex = regex;
+        this.nfa = ByteRegex.compile(regex);
+        this.seen = new int[nfa.stateCount];
+        this.stack = new int[nfa.stateCount * 2 + 1];
+        this.buffer = new int[nfa.stateCount];
+        this.sourceBuffer = new int[nfa.stateCount];
+        this.generation = 0;
+        this.startList = closureOfStart();
+        this.stateIds = new HashMap<>();
+        this.stateLists = new ArrayList<>();
+        this.acceptIndex = new int[16];
+        this.next = new int[16 * 256];
+        this.sourceMaps = new int[16 * 256][];
+        this.starts = new int[nfa.stateCount];
+        this.nextStarts = new int[nfa.stateCount];
+        this.state = addState(EMPTY_LIST);
+    }
+
+    public String regex() {
+        return regex;
+    }
+
+    @Override
+    public StatusByteMatchResult indexOf(ByteChunk chunk) {
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+
+        var bytes = chunk.bytes;
+        var from = chunk.start + start;
+        var to = chunk.start + end;
+
+        var s = state;
+        var cs = starts;
+        var ns = nextStarts;
+
+        for (int i = from; i < to; i = i + 1) {
+
+            var b = bytes[i] & 0xFF;
+            var t = (s << 8) | b;
+            var n = next[t];
+
+            if (n < 0) {
+                // 缓存已满时先清空, 当前状态会被重新编号
+                if (stateLists.size() >= MAX_DFA_STATES) {
+                    s = flush(s);
+                    t = (s << 8) | b;
+                }
+                n = buildTransition(s, b);
+            }
+
+            // 传递每个线程的起点
+            var sourceMap = sourceMaps[t];
+            var rel = i - from;
+            for (int k = 0; k < sourceMap.length; k = k + 1) {
+                var source = sourceMap[k];
+                ns[k] = source < 0 ? rel : cs[source];
+            }
+            var tmp = cs;
+            cs = ns;
+            ns = tmp;
+            s = n;
+
+            var a = acceptIndex[s];
+            if (a >= 0) {
+                var matchStart = cs[a];
+                // 重置 state, 保证下次匹配
+                state = 0;
+                starts = cs;
+                nextStarts = ns;
+                return packFullMatch(matchStart, rel - matchStart + 1);
+            }
+        }
+
+        // 起点转换为相对于下一个 chunk 的索引 (负数)
+        var length = to - from;
+        var liveCount = stateLists.get(s).length;
+        for (int k = 0; k < liveCount; k = k + 1) {
+            cs[k] = cs[k] - length;
+        }
+
+        state = s;
+        starts = cs;
+        nextStarts = ns;
+
+        return s == 0 ? NO_MATCH_PACKED : PARTIAL_MATCH_PACKED;
+    }
+
+    @Override
+    public boolean isEmptyPattern() {
+        return false;
+    }
+
+    @Override
+    public void reset() {
+        state = 0;
+    }
+
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
+    private int[] closureOfStart() {
+        generation = generation + 1;
+        var length = nfa.closure(nfa.start, seen, generation, stack, buffer, 0);
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /// 计算 state 在字节 b 上的转移: 先推进已有线程 (起点较早), 再推进当前位置新启动的线程, 同一 NFA 状态只保留第一个到达的线程.
+    private int buildTransition(int s, int b) {
+        var list = stateLists.get(s);
+        generation = generation + 1;
+        var length = 0;
+        for (int k = 0; k < list.length; k = k + 1) {
+            length = step(list[k], b, k, length);
+        }
+        for (var nfaState : startList) {
+            length = step(nfaState, b, -1, length);
+        }
+        var n = addState(Arrays.copyOf(buffer, length));
+        var t = (s << 8) | b;
+        next[t] = n;
+        sourceMaps[t] = Arrays.copyOf(sourceBuffer, length);
+        return n;
+    }
+
+    private int step(int nfaState, int b, int source, int length) {
+        if (nfa.type[nfaState] != ByteRegex.BYTE || !nfa.accepts(nfaState, b)) {
+            return length;
+        }
+        var newLength = nfa.closure(nfa.out[nfaState], seen, generation, stack, buffer, length);
+        for (int k = length; k < newLength; k = k + 1) {
+            sourceBuffer[k] = source;
+        }
+        return newLength;
+    }
+
+    private int addState(int[] list) {
+        var key = new StateKey(list);
+        var id = stateIds.get(key);
+        if (id != null) {
+            return id;
+        }
+        id = stateLists.size();
+        stateIds.put(key, id);
+        stateLists.add(list);
+        if (id == acceptIndex.length) {
+            var newLength = id * 2;
+            acceptIndex = Arrays.copyOf(acceptIndex, newLength);
+            next = Arrays.copyOf(next, newLength * 256);
+            sourceMaps = Arrays.copyOf(sourceMaps, newLength * 256);
+        }
+        acceptIndex[id] = -1;
+        for (int k = 0; k < list.length; k = k + 1) {
+            if (list[k] == nfa.match) {
+                acceptIndex[id] = k;
+                break;
+            }
+        }
+        Arrays.fill(next, id << 8, (id + 1) << 8, -1);
+        Arrays.fill(sourceMaps, id << 8, (id + 1) << 8, null);
+        return id;
+    }
+
+    /// 清空 DFA 缓存, 保留空状态 (id 0) 和当前状态, 返回当前状态的新 id. 线程起点顺序不变, 无需调整.
+    private int flush(int s) {
+        var current = stateLists.get(s);
+        stateIds.clear();
+        stateLists.clear();
+        addState(EMPTY_LIST);
+        return addState(current);
+    }
+
+    private record StateKey(int[] list) {
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof StateKey other && Arrays.equals(list, other.list);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(list);
+        }
+
+    }
+
+}
@@ -0,0 +1,132 @@
+package dev.scx.io.indexer;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import static java.nio.ByteOrder.LITTLE_ENDIAN;
+
+/// SWARByteScanner
+///
+/// 基于 SWAR (SIMD Within A Register) 的字节扫描, 每次以一个 long 比较 8 个字节.
+///
+/// - 不依赖 jdk.incubator.vector 模块, 在任意 JVM 上均可直接使用, 不足 8 字节的尾部退化为逐字节比较.
+/// - 所有索引均为 byte[] 上的 "绝对索引", 由调用者负责与 [dev.scx.io.ByteChunk] 的相对索引互相转换.
+///
+/// @author scx567888
+final class SWARByteScanner {
+
+    private static final VarHandle LONG_VIEW = MethodHandles.byteArrayViewVarHandle(long[].class, LITTLE_ENDIAN);
+
+    private static final long LOW_BITS = 0x0101010101010101L;
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+
+    private SWARByteScanner() {
+
+    }
+
+    /// 将单个字节复制到 long 的全部 8 个字节中
+    static long broadcast(byte b) {
+        return (b & 0xFFL) * LOW_BITS;
+    }
+
+    /// 以小端序读取 bytes[index, index + 8)
+    static long getLong(byte[] bytes, int index) {
+        return (long) LONG_VIEW.get(bytes, index);
+    }
+
+    /// 标记 word 中值为 0 的字节 (对应字节的最高位置 1).
+    ///
+    /// 注意: 只有最低位的标记是精确的, 更高位的标记可能因借位产生误报, 所以调用者只能使用 numberOfTrailingZeros.
+    static long zeroBytes(long word) {
+        return (word - LOW_BITS) & ~word & HIGH_BITS;
+    }
+
+    /// 将 zeroBytes 的结果转换为字节偏移量 (0 - 7)
+    static int firstByteOffset(long zeroBytes) {
+        return Long.numberOfTrailingZeros(zeroBytes) >>> 3;
+    }
+
+    /// 在 bytes 的 [from, to) 中查找 b
+    ///
+    /// @return 绝对索引, 未找到返回 -1
+    static int indexOf(byte[] bytes, int from, int to, byte b) {
+        var pattern = broadcast(b);
+        var i = from;
+        var limit = to - 8;
+        while (i <= limit) {
+            var found = zeroBytes(getLong(bytes, i) ^ pattern);
+            if (found != 0) {
+                return i + firstByteOffset(found);
+            }
+            i = i + 8;
+        }
+        // 尾部逐字节比较
+        while (i < to) {
+            if (bytes[i] == b) {
+                return i;
+            }
+            i = i + 1;
+        }
+        return -1;
+    }
+
+    /// 在 bytes 的 [from, to) 中查找 b1 或 b2 (以先出现者为准)
+    ///
+    /// @return 绝对索引, 未找到返回 -1
+    static int indexOfAny(byte[] bytes, int from, int to, byte b1, byte b2) {
+        var pattern1 = broadcast(b1);
+        var pattern2 = broadcast(b2);
+        var i = from;
+        var limit = to - 8;
+        while (i <= limit) {
+            var word = getLong(bytes, i);
+            // 两者各自的最低位标记都是精确的, 所以合并之后的最低位标记同样精确
+            var found = zeroBytes(word ^ pattern1) | zeroBytes(word ^ pattern2);
+            if (found != 0) {
+                return i + firstByteOffset(found);
+            }
+            i = i + 8;
+        }
+        // 尾部逐字节比较
+        while (i < to) {
+            var b = bytes[i];
+            if (b == b1 || b == b2) {
+                return i;
+            }
+            i = i + 1;
+        }
+        return -1;
+    }
+
+    /// 在 bytes 的 [from, to) 中查找 patterns 中任意一个字节 (以先出现者为准)
+    ///
+    /// @param patterns 每个字节的 broadcast 结果
+    /// @param table    256 位的成员表, 用于尾部逐字节比较
+    /// @return 绝对索引, 未找到返回 -1
+    static int indexOfAny(byte[] bytes, int from, int to, long[] patterns, long[] table) {
+        var i = from;
+        var limit = to - 8;
+        while (i <= limit) {
+            var word = getLong(bytes, i);
+            var found = 0L;
+            for (var pattern : patterns) {
+                found |= zeroBytes(word ^ pattern);
+            }
+            if (found != 0) {
+                return i + firstByteOffset(found);
+            }
+            i = i + 8;
+        }
+        // 尾部逐字节比较
+        while (i < to) {
+            var b = bytes[i] & 0xFF;
+            if ((table[b >>> 6] & (1L << b)) != 0) {
+                return i;
+            }
+            i = i + 1;
+        }
+        return -1;
+    }
+
+}
@@ -2,11 +2,12 @@ package dev.scx.io.indexer;
 
 import dev.scx.io.ByteChunk;
 
-import static dev.scx.io.indexer.StatusByteMatchResult.NO_MATCH_RESULT;
-import static dev.scx.io.indexer.StatusByteMatchResult.fullMatch;
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
 
 /// SingleByteIndexer
 ///
+/// 使用 [SWARByteScanner] 每次比较 8 个字节.
+///
 /// @author scx567888
 public final class SingleByteIndexer implements ByteIndexer {
 
@@ -18,13 +19,19 @@ public final class SingleByteIndexer implements ByteIndexer {
 
     @Override
     public StatusByteMatchResult indexOf(ByteChunk chunk) {
-        // 普通 查找
-        for (var i = 0; i < chunk.length; i = i + 1) {
-            if (chunk.get(i) == b) {
-                return fullMatch(i, 1);
-            }
+        return unpack(indexOfPacked(chunk, 0, chunk.length));
+    }
+
+    @Override
+    public long indexOfPacked(ByteChunk chunk, int start, int end) {
+        var from = chunk.start + start;
+        // SWAR 查找
+        var i = SWARByteScanner.indexOf(chunk.bytes, from, chunk.start + end, b);
+        if (i != -1) {
+            // 绝对索引 -> 相对索引
+            return packFullMatch(i - from, 1);
         }
-        return NO_MATCH_RESULT;
+        return NO_MATCH_PACKED;
     }
 
     @Override
@@ -37,4 +44,9 @@ public final class SingleByteIndexer implements ByteIndexer {
 
     }
 
+    @Override
+    public boolean retainsChunks() {
+        return false; // 只在 indexOf 中读取数据, 不保存数据块
+    }
+
 }
@@ -6,6 +6,10 @@ import static dev.scx.io.indexer.StatusByteMatchResult.Status.*;
 ///
 /// 表示 ByteIndexer 的状态机输出, 一般内部使用.
 ///
+/// 同时提供无分配的 long 打包形式 (参考 [ByteIndexer#indexOfPacked(dev.scx.io.ByteChunk, int, int)]):
+/// - 高 32 位: index.
+/// - 低 32 位: matchedLength, 若为负数则表示未完全匹配 (-1 为 NO_MATCH, -2 为 PARTIAL_MATCH).
+///
 /// @author scx567888
 public final class StatusByteMatchResult {
 
@@ -13,6 +17,12 @@ public final class StatusByteMatchResult {
 
     public static final StatusByteMatchResult PARTIAL_MATCH_RESULT = new StatusByteMatchResult(PARTIAL_MATCH, -1, -1);
 
+    /// 打包形式的 NO_MATCH
+    public static final long NO_MATCH_PACKED = -1L;
+
+    /// 打包形式的 PARTIAL_MATCH
+    public static final long PARTIAL_MATCH_PACKED = -2L;
+
     /// 匹配状态
     public final Status status;
 
@@ -34,6 +44,50 @@ public final class StatusByteMatchResult {
         return new StatusByteMatchResult(FULL_MATCH, index, matchedLength);
     }
 
+    /// 打包形式的 FULL_MATCH
+    public static long packFullMatch(int index, int matchedLength) {
+        return ((long) index << 32) | (matchedLength & 0xFFFF_FFFFL);
+    }
+
+    public static boolean isFullMatch(long packed) {
+        return (int) packed >= 0;
+    }
+
+    public static Status unpackStatus(long packed) {
+        var low = (int) packed;
+        if (low >= 0) {
+            return FULL_MATCH;
+        }
+        return low == (int) NO_MATCH_PACKED ? NO_MATCH : PARTIAL_MATCH;
+    }
+
+    /// 仅在 FULL_MATCH 时有意义
+    public static int unpackIndex(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    /// 仅在 FULL_MATCH 时有意义
+    public static int unpackMatchedLength(long packed) {
+        return (int) packed;
+    }
+
+    public static long pack(StatusByteMatchResult result) {
+        return switch (result.status) {
+            case NO_MATCH -> NO_MATCH_PACKED;
+            case PARTIAL_MATCH -> PARTIAL_MATCH_PACKED;
+            case FULL_MATCH -> packFullMatch(result.index, result.matchedLength);
+        };
+    }
+
+    /// 只有 FULL_MATCH 才会创建新对象, 其余情况返回常量.
+    public static StatusByteMatchResult unpack(long packed) {
+        var low = (int) packed;
+        if (low >= 0) {
+            return fullMatch(unpackIndex(packed), low);
+        }
+        return low == (int) NO_MATCH_PACKED ? NO_MATCH_RESULT : PARTIAL_MATCH_RESULT;
+    }
+
     @Override
     public String toString() {
         return "StatusByteMatchResult[status=" + status + ", index=" + index + ", matchedLength=" + matchedLength + ']';
@@ -2,11 +2,14 @@ package dev.scx.io.input;
 
 import dev.scx.exception.ScxWrappedException;
 import dev.scx.io.ByteChunk;
+import dev.scx.io.ByteIndexCursor;
 import dev.scx.io.ByteInput;
 import dev.scx.io.ByteInputMark;
 import dev.scx.io.ByteMatchResult;
+import dev.scx.io.MutableByteMatchResult;
 import dev.scx.io.consumer.ByteConsumer;
 import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.InvalidMarkException;
 import dev.scx.io.exception.NoMatchFoundException;
 import dev.scx.io.exception.NoMoreDataException;
 import dev.scx.io.exception.ScxInputException;
@@ -14,31 +17,155 @@ import dev.scx.io.indexer.ByteIndexer;
 import dev.scx.io.supplier.ByteSupplier;
 
 import static dev.scx.io.ByteChunk.EMPTY_BYTE_CHUNK;
-import static dev.scx.io.indexer.StatusByteMatchResult.Status.FULL_MATCH;
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
 import static java.lang.Long.MAX_VALUE;
 import static java.lang.Math.min;
 
 /// DefaultByteInput
 ///
+/// 缓冲的数据块保存在一个可增长的环形数组中, 每个数据块有一个绝对序号 (从 0 开始, 每拉取一个数据块加 1).
+///
+/// - 读取位置为 (数据块序号, 块内位置), 不会为每个数据块分配节点对象.
+/// - mark 只记录读取位置, mark 和 reset 都是 O(1).
+/// - 已完全消费的数据块会被立即释放 (从数组中移除), 除非仍有有效的 mark 位于其之前.
+/// - mark 在 release, 或读取超过 readLimit 后失效, 读取位置移动到下一个数据块时, 不再被有效 mark 保留的数据块会被立即释放.
+/// - mark 同时通过弱引用登记, 未 release 就被丢弃的 mark 被 GC 回收后, 其保留的数据块也会在后续读取中被释放.
+/// - 释放 (以及 close 时丢弃) 的数据块, 若从未交给过会保留数据块的 consumer ([ByteConsumer#retainsChunks()]),
+///   会通过 [ByteSupplier#release(ByteChunk)] 归还给 byteSupplier, 以便其复用数组.
+///
 /// @author scx567888
 public final class DefaultByteInput implements ByteInput {
 
+    private static final int INITIAL_CAPACITY = 8;
+
     private final ByteSupplier byteSupplier;
 
-    private ByteChunkNode head;
-    private ByteChunkNode tail;
+    /// 环形数组, 容量始终为 2 的幂
+    private ByteChunk[] chunks;
+    /// 每个数据块起始位置在整个流中的绝对偏移量, 与 chunks 一一对应
+    private long[] offsets;
+    /// 数据块是否交给过会保留数据块的 consumer (这样的数据块不能归还), 与 chunks 一一对应
+    private boolean[] exposed;
+    /// 最早保留的数据块在数组中的位置 和 序号
+    private int first;
+    private long firstSeq;
+    /// 保留的数据块数量
+    private int count;
+    /// 当前读取的数据块序号, 块内位置, 以及数据块本身 (缓存, 避免每次读取时计算数组位置)
+    private long readSeq;
+    private int readPosition;
+    private ByteChunk readChunk;
+    private long readChunkOffset;
+    /// 有效的 mark (保留位置为数据块序号)
+    private final MarkRegistry marks;
     private boolean closed;
 
     public DefaultByteInput(ByteSupplier byteSupplier) {
         this.byteSupplier = byteSupplier;
-        this.head = new ByteChunkNode(EMPTY_BYTE_CHUNK);
-        this.tail = this.head;
+        this.chunks = new ByteChunk[INITIAL_CAPACITY];
+        // 初始为一个空块, 保证 "当前读取的数据块" 始终存在
+        this.chunks[0] = EMPTY_BYTE_CHUNK;
+        this.offsets = new long[INITIAL_CAPACITY];
+        this.exposed = new boolean[INITIAL_CAPACITY];
+        this.first = 0;
+        this.firstSeq = 0;
+        this.count = 1;
+        this.readSeq = 0;
+        this.readPosition = 0;
+        this.readChunk = EMPTY_BYTE_CHUNK;
+        this.readChunkOffset = 0;
+        this.marks = new MarkRegistry();
         this.closed = false;
     }
 
+    /// 序号为 seq 的数据块 (调用者保证 firstSeq <= seq < endSeq)
+    private ByteChunk chunkAt(long seq) {
+        return chunks[slotOf(seq)];
+    }
+
+    private int slotOf(long seq) {
+        return (first + (int) (seq - firstSeq)) & (chunks.length - 1);
+    }
+
+    /// 当前读取位置在整个流中的绝对偏移量
+    private long readOffset() {
+        return readChunkOffset + readPosition;
+    }
+
+    /// 最后一个数据块的下一个序号
+    private long endSeq() {
+        return firstSeq + count;
+    }
+
     private void appendByteChunk(ByteChunk byteChunk) {
-        tail.next = new ByteChunkNode(byteChunk);
-        tail = tail.next;
+        var lastSlot = slotOf(endSeq() - 1);
+        var offset = offsets[lastSlot] + chunks[lastSlot].length;
+        if (count == chunks.length) {
+            // 扩容, 同时将数据块按顺序移动到数组开头
+            var newChunks = new ByteChunk[chunks.length << 1];
+            var newOffsets = new long[chunks.length << 1];
+            var newExposed = new boolean[chunks.length << 1];
+            for (int i = 0; i < count; i = i + 1) {
+                newChunks[i] = chunks[(first + i) & (chunks.length - 1)];
+                newOffsets[i] = offsets[(first + i) & (chunks.length - 1)];
+                newExposed[i] = exposed[(first + i) & (chunks.length - 1)];
+            }
+            chunks = newChunks;
+            offsets = newOffsets;
+            exposed = newExposed;
+            first = 0;
+        }
+        var slot = (first + count) & (chunks.length - 1);
+        chunks[slot] = byteChunk;
+        offsets[slot] = offset;
+        count = count + 1;
+    }
+
+    /// 移动读取位置, 并释放不再需要的数据块
+    private void moveTo(long seq, int position) {
+        readSeq = seq;
+        readPosition = position;
+        var slot = slotOf(seq);
+        readChunk = chunks[slot];
+        readChunkOffset = offsets[slot];
+        releaseConsumed();
+    }
+
+    /// 释放读取位置之前 且 不被任何 mark 保留的数据块
+    private void releaseConsumed() {
+        var readOffset = readOffset();
+        if (readOffset > marks.minLimit()) {
+            marks.invalidateExceeded(readOffset);
+        }
+        if (firstSeq < readSeq && firstSeq >= marks.minPosition()) {
+            // 只有存在 mark 阻止释放时, 才需要检查是否有 mark 已被回收
+            marks.expungeStale();
+        }
+        var limit = min(readSeq, marks.minPosition());
+        while (firstSeq < limit) {
+            releaseChunk(first);
+            chunks[first] = null;
+            first = (first + 1) & (chunks.length - 1);
+            firstSeq = firstSeq + 1;
+            count = count - 1;
+        }
+    }
+
+    /// 将未交给过 retaining consumer 的数据块归还给 byteSupplier
+    private void releaseChunk(int slot) {
+        var chunk = chunks[slot];
+        if (exposed[slot]) {
+            exposed[slot] = false;
+        } else if (chunk != EMPTY_BYTE_CHUNK) {
+            byteSupplier.release(chunk);
+        }
+    }
+
+    private void removeMark(MarkRegistry.Entry entry) {
+        if (marks.remove(entry)) {
+            // 立即释放不再被保留的数据块
+            releaseConsumed();
+        }
     }
 
     /// 从 byteSupplier 中持续拉取直到得到有效数据块
@@ -63,18 +190,18 @@ public final class DefaultByteInput implements ByteInput {
     /// @return 调用了几次底层拉取
     private long ensureAvailable() throws NoMoreDataException, ScxInputException {
         var pullCount = 0L;
-        // 保证 当前 head 中至少有 1个 字节
-        if (head.hasAvailable()) {
+        // 保证 当前数据块中至少有 1个 字节
+        if (readPosition < readChunk.length) {
             return pullCount;
         }
-        if (head.next == null) {
+        if (readSeq + 1 == endSeq()) {
             var eof = this.pullByteChunk();
             if (eof) {
                 throw new NoMoreDataException();
             }
             pullCount = pullCount + 1;
         }
-        head = head.next;
+        moveTo(readSeq + 1, 0);
         return pullCount;
     }
 
@@ -94,9 +221,12 @@ public final class DefaultByteInput implements ByteInput {
     /// @param throwOnEOF   当遇到 EOF (底层数据源结束), 导致实际读取字节数不足时 是否抛异常
     private void read0(ByteConsumer consumer, long maxLength, boolean movePointer, long maxPullCount, boolean throwOnEOF) throws NoMoreDataException, ScxInputException, ScxWrappedException {
 
+        var retains = consumer.retainsChunks();
         var remaining = maxLength; // 剩余需要读取的字节数
 
-        var n = head; // 用于循环的节点
+        var seq = readSeq; // 用于循环的数据块序号
+        var chunk = readChunk;
+        var position = readPosition;
         var pullCount = 0L; // 拉取次数计数器
 
         // 循环中有 4 种情况
@@ -108,13 +238,17 @@ public final class DefaultByteInput implements ByteInput {
         // 初始只判断是否 已经读取到足够的数据
         while (remaining > 0) {
 
-            // 计算当前节点中可读取的最大长度, (这里因为是将 int 和 long 值进行最小值比较 所以返回值一定是 int 所以类型转换不会丢失精度)
-            var length = (int) min(n.available(), remaining);
+            // 计算当前数据块中可读取的最大长度, (这里因为是将 int 和 long 值进行最小值比较 所以返回值一定是 int 所以类型转换不会丢失精度)
+            var length = (int) min(chunk.length - position, remaining);
+
+            if (retains) {
+                exposed[slotOf(seq)] = true;
+            }
 
             // 调用消费者 写入数据
             boolean needMore;
             try {
-                needMore = consumer.accept(n.chunk.subChunk(n.position, n.position + length));
+                needMore = consumer.accept(chunk.subChunk(position, position + length));
             } catch (Throwable e) {
                 // consumer 中的异常需要包装成 ScxWrappedException
                 throw new ScxWrappedException(e);
@@ -122,10 +256,11 @@ public final class DefaultByteInput implements ByteInput {
 
             // 计算剩余字节数
             remaining -= length;
+            position += length;
 
             if (movePointer) {
-                // 移动当前节点的指针位置
-                n.position += length;
+                // 移动当前数据块的读取位置
+                readPosition = position;
             }
 
             // 数据已经读取够 或者 无需继续读取了 我们直接跳出循环
@@ -134,15 +269,15 @@ public final class DefaultByteInput implements ByteInput {
             }
 
             // 当走到这里时 说明 remaining 一定大于 0,
-            // 而从 remaining 和 length 的计算方式得出, 此时 n 一定已经被彻底消耗掉了
-            // 所以我们可以放心的直接更新到下一节点 即可
+            // 而从 remaining 和 length 的计算方式得出, 此时当前数据块一定已经被彻底消耗掉了
+            // 所以我们可以放心的直接更新到下一数据块 即可
 
-            if (n.next == null) {
+            if (seq + 1 == endSeq()) {
                 //已经达到最大拉取次数 直接退出
                 if (pullCount >= maxPullCount) {
                     break;
                 }
-                // 如果 当前节点没有下一个节点 并且拉取失败 则退出循环
+                // 如果 当前数据块没有下一个数据块 并且拉取失败 则退出循环
                 var eof = this.pullByteChunk();
                 // 数据不足
                 if (eof) {
@@ -156,32 +291,44 @@ public final class DefaultByteInput implements ByteInput {
                 }
                 pullCount = pullCount + 1;
             }
-            n = n.next;
+            seq = seq + 1;
+            chunk = chunkAt(seq);
+            position = 0;
 
-            // 更新 头节点
+            // 更新 读取位置
             if (movePointer) {
-                head = n;
+                moveTo(seq, 0);
             }
 
         }
 
     }
 
-    private ByteMatchResult indexOf0(ByteIndexer indexer, long maxLength, long maxPullCount) throws NoMatchFoundException, ScxInputException {
+    /// 结果写入 result, 整个查找过程不分配对象 (除了拉取数据本身)
+    private void indexOf0(ByteIndexer indexer, long maxLength, long maxPullCount, MutableByteMatchResult result) throws NoMatchFoundException, ScxInputException {
 
         var index = 0L; // 主串索引
 
-        var n = head;
+        var seq = readSeq;
+        var chunk = readChunk;
+        var position = readPosition;
         var pullCount = 0L; // 拉取次数计数器
+        var retains = indexer.retainsChunks();
 
         // 初始只判断索引是否 达到最大长度
         while (index < maxLength) {
-            // 计算当前节点中可读取的最大长度, 确保不超过 max (这里因为是将 int 和 long 值进行最小值比较 所以返回值一定是 int 所以类型转换不会丢失精度)
-            var length = (int) min(n.available(), maxLength - index);
-            var indexMatchResult = indexer.indexOf(n.chunk.subChunk(n.position, n.position + length));
+            // 计算当前数据块中可读取的最大长度, 确保不超过 max (这里因为是将 int 和 long 值进行最小值比较 所以返回值一定是 int 所以类型转换不会丢失精度)
+            var length = (int) min(chunk.length - position, maxLength - index);
+            // indexer 可能保存数据块, 不能再归还给 byteSupplier
+            if (retains) {
+                exposed[slotOf(seq)] = true;
+            }
+            // 直接在数据块的可用区间上查找, 不创建 subChunk
+            var packedResult = indexer.indexOfPacked(chunk, position, position + length);
             // 此处因为支持回溯匹配 所以可能是负数 NO_MATCH 表示真正未找到
-            if (indexMatchResult.status == FULL_MATCH) {
-                return new ByteMatchResult(index + indexMatchResult.index, indexMatchResult.matchedLength);
+            if (isFullMatch(packedResult)) {
+                result.set(index + unpackIndex(packedResult), unpackMatchedLength(packedResult));
+                return;
             }
 
             index += length;
@@ -191,8 +338,8 @@ public final class DefaultByteInput implements ByteInput {
                 break;
             }
 
-            // 如果 currentNode 没有下一个节点并且尝试拉取数据失败, 直接退出循环
-            if (n.next == null) {
+            // 如果 当前数据块没有下一个数据块并且尝试拉取数据失败, 直接退出循环
+            if (seq + 1 == endSeq()) {
                 if (pullCount >= maxPullCount) {
                     break;
                 }
@@ -204,7 +351,9 @@ public final class DefaultByteInput implements ByteInput {
                 }
                 pullCount = pullCount + 1;
             }
-            n = n.next;
+            seq = seq + 1;
+            chunk = chunkAt(seq);
+            position = 0;
 
         }
 
@@ -217,8 +366,8 @@ public final class DefaultByteInput implements ByteInput {
 
         ensureAvailable();// 确保 有可用数据
 
-        var b = head.chunk.get(head.position);
-        head.position = head.position + 1;
+        var b = readChunk.get(readPosition);
+        readPosition = readPosition + 1;
         return b;
     }
 
@@ -262,7 +411,7 @@ public final class DefaultByteInput implements ByteInput {
 
         ensureAvailable();// 确保 有可用数据
 
-        return head.chunk.get(head.position);
+        return readChunk.get(readPosition);
     }
 
     @Override
@@ -311,14 +460,51 @@ public final class DefaultByteInput implements ByteInput {
             ensureAvailable();// 确保 有可用数据
         }
 
-        return indexOf0(indexer, maxLength, MAX_VALUE);
+        var result = new MutableByteMatchResult();
+        indexOf0(indexer, maxLength, MAX_VALUE, result);
+        return result.toByteMatchResult();
+    }
+
+    @Override
+    public void indexOf(ByteIndexer indexer, long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+
+        if (indexer.isEmptyPattern()) {
+            result.set(0, 0);
+            return;
+        }
+
+        if (maxLength > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        indexOf0(indexer, maxLength, MAX_VALUE, result);
+    }
+
+    @Override
+    public ByteIndexCursor indexCursor(ByteIndexer indexer) {
+        return new DefaultByteIndexCursor(this, indexer);
     }
 
     @Override
     public ByteInputMark mark() throws InputAlreadyClosedException {
+        return mark(MAX_VALUE);
+    }
+
+    @Override
+    public ByteInputMark mark(long readLimit) throws InputAlreadyClosedException {
         ensureOpen();// 确保 open
 
-        return new DefaultByteInputMark(this, head, head.position);
+        if (readLimit < 0) {
+            throw new IllegalArgumentException("readLimit must not be negative");
+        }
+
+        var offset = readOffset();
+        // 防止溢出
+        var limitOffset = readLimit > MAX_VALUE - offset ? MAX_VALUE : offset + readLimit;
+        var mark = new DefaultByteInputMark(this, readSeq, readPosition);
+        mark.entry = marks.add(mark, readSeq, limitOffset);
+        return mark;
     }
 
     @Override
@@ -334,64 +520,147 @@ public final class DefaultByteInput implements ByteInput {
 
         byteSupplier.close();
         closed = true; // 只有成功关闭才算作 关闭
+
+        // 关闭后不会再读取, 归还所有剩余的数据块
+        for (long seq = firstSeq; seq < endSeq(); seq = seq + 1) {
+            releaseChunk(slotOf(seq));
+        }
     }
 
     public ByteSupplier byteSupplier() {
         return byteSupplier;
     }
 
-    private static class ByteChunkNode {
+    private static final class DefaultByteInputMark implements ByteInputMark {
 
-        public final ByteChunk chunk;
-        /// 相对 索引 0 起始
-        public int position;
-        public ByteChunkNode next;
+        private final DefaultByteInput defaultByteInput;
+        private final long seq;
+        private final int position;
+        /// 登记信息 (包含失效偏移量)
+        private MarkRegistry.Entry entry;
 
-        public ByteChunkNode(ByteChunk chunk) {
-            this.chunk = chunk;
-            this.position = 0;
-            this.next = null;
+        private DefaultByteInputMark(DefaultByteInput defaultByteInput, long seq, int position) {
+            this.defaultByteInput = defaultByteInput;
+            this.seq = seq;
+            this.position = position;
         }
 
-        public int available() {
-            return chunk.length - position;
-        }
+        @Override
+        public void reset() throws InvalidMarkException, InputAlreadyClosedException {
+            defaultByteInput.ensureOpen();// 确保 open
 
-        public boolean hasAvailable() {
-            return position < chunk.length;
-        }
+            // 当前数据块内的读取不会触发失效检查, 所以这里需要再精确判断一次
+            if (!entry.isValid() || defaultByteInput.readOffset() > entry.limitOffset) {
+                release();
+                throw new InvalidMarkException();
+            }
 
-        public void reset() {
-            position = 0;
+            // mark 有效期间 其之后的数据块不会被释放, 直接恢复读取位置即可
+            defaultByteInput.moveTo(seq, position);
         }
 
-        /// 默认使用平台编码, 仅建议用于调试
         @Override
-        public String toString() {
-            return new String(chunk.bytes, chunk.start + position, chunk.length - position);
+        public void release() {
+            defaultByteInput.removeMark(entry);
         }
 
     }
 
-    private record DefaultByteInputMark(
-        DefaultByteInput defaultByteInput,
-        ByteChunkNode markNode,
-        int markPosition
-    ) implements ByteInputMark {
+    /// 保存 "开始扫描时的读取位置" 和 "上次停止扫描的位置", 读取位置不变时从停止处继续.
+    private static final class DefaultByteIndexCursor implements ByteIndexCursor {
+
+        private final DefaultByteInput defaultByteInput;
+        private final ByteIndexer indexer;
+        /// 开始扫描时的读取位置 (数据块序号, 块内位置), startSeq 为 -1 表示需要重新开始
+        private long startSeq;
+        private int startPosition;
+        /// 上次停止扫描的位置
+        private long scanSeq;
+        private int scanPosition;
+        /// 已扫描的长度 (相对于开始扫描时的读取位置)
+        private long scannedLength;
+
+        private DefaultByteIndexCursor(DefaultByteInput defaultByteInput, ByteIndexer indexer) {
+            this.defaultByteInput = defaultByteInput;
+            this.indexer = indexer;
+            this.startSeq = -1;
+        }
 
         @Override
-        public void reset() throws InputAlreadyClosedException {
-            defaultByteInput.ensureOpen();// 确保 open
+        public void indexOf(long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+            var input = defaultByteInput;
+
+            input.ensureOpen();// 确保 open
+
+            if (indexer.isEmptyPattern()) {
+                result.set(0, 0);
+                return;
+            }
+
+            if (maxLength <= 0) {
+                throw new NoMatchFoundException();
+            }
+
+            input.ensureAvailable();// 确保 有可用数据
+
+            // 读取位置发生了变化 (或上次已匹配成功), 从当前读取位置重新开始
+            if (startSeq != input.readSeq || startPosition != input.readPosition) {
+                indexer.reset();
+                startSeq = input.readSeq;
+                startPosition = input.readPosition;
+                scanSeq = input.readSeq;
+                scanPosition = input.readPosition;
+                scannedLength = 0;
+            }
 
-            //重置当前 mark
-            defaultByteInput.head = markNode;
-            defaultByteInput.head.position = markPosition;
-            //后续节点全部重置
-            var n = defaultByteInput.head.next;
-            while (n != null) {
-                n.reset();
-                n = n.next;
+            // 读取位置没有变化, 所以 scanSeq 之后的数据块一定没有被释放
+            var seq = scanSeq;
+            var chunk = input.chunkAt(seq);
+            var position = scanPosition;
+            var index = scannedLength;
+            // indexer 可能保存数据块, 不能再归还给 byteSupplier
+            var retains = indexer.retainsChunks();
+
+            while (index < maxLength) {
+                // 当前数据块已扫描完, 移动到下一数据块 (必要时拉取)
+                if (position == chunk.length) {
+                    if (seq + 1 == input.endSeq()) {
+                        var eof = input.pullByteChunk();
+                        if (eof) {
+                            break;
+                        }
+                    }
+                    seq = seq + 1;
+                    chunk = input.chunkAt(seq);
+                    position = 0;
+                }
+                // 这里因为是将 int 和 long 值进行最小值比较 所以返回值一定是 int 所以类型转换不会丢失精度
+                var length = (int) min(chunk.length - position, maxLength - index);
+                if (retains) {
+                    input.exposed[input.slotOf(seq)] = true;
+                }
+                var packedResult = indexer.indexOfPacked(chunk, position, position + length);
+                if (isFullMatch(packedResult)) {
+                    // indexer 已自行重置, 下次从新的读取位置开始
+                    startSeq = -1;
+                    result.set(index + unpackIndex(packedResult), unpackMatchedLength(packedResult));
+                    return;
+                }
+                index += length;
+                position += length;
             }
+
+            // 保存进度
+            scanSeq = seq;
+            scanPosition = position;
+            scannedLength = index;
+
+            throw new NoMatchFoundException();
+        }
+
+        @Override
+        public void reset() {
+            startSeq = -1;
         }
 
     }
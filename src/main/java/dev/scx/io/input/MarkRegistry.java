@@ -0,0 +1,120 @@
+package dev.scx.io.input;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+
+import static java.lang.Long.MAX_VALUE;
+import static java.lang.Math.min;
+
+/// MarkRegistry
+///
+/// 登记 ByteInput 中有效的 mark, 并维护其中最小的保留位置 和 最小的失效偏移量, 供 ByteInput 判断哪些数据可以释放.
+///
+/// - 保留位置的含义由使用方决定 (如 数据块序号 或 绝对偏移量).
+/// - mark 通过弱引用登记, 未 release 就被丢弃的 mark 被 GC 回收后, 可通过 expungeStale 移除.
+///
+/// @author scx567888
+final class MarkRegistry {
+
+    private final ArrayList<Entry> entries;
+    private final ReferenceQueue<Object> queue;
+    /// 最小的保留位置 和 最小的失效偏移量 (没有 mark 时均为 MAX_VALUE)
+    private long minPosition;
+    private long minLimit;
+
+    MarkRegistry() {
+        this.entries = new ArrayList<>();
+        this.queue = new ReferenceQueue<>();
+        this.minPosition = MAX_VALUE;
+        this.minLimit = MAX_VALUE;
+    }
+
+    Entry add(Object mark, long position, long limitOffset) {
+        var entry = new Entry(mark, queue, position, limitOffset);
+        entries.add(entry);
+        minPosition = min(minPosition, position);
+        minLimit = min(minLimit, limitOffset);
+        return entry;
+    }
+
+    /// @return 是否真正移除 (已失效的 entry 返回 false)
+    boolean remove(Entry entry) {
+        if (!entry.valid) {
+            return false;
+        }
+        entry.valid = false;
+        entries.remove(entry);
+        updateBounds();
+        return true;
+    }
+
+    long minPosition() {
+        return minPosition;
+    }
+
+    long minLimit() {
+        return minLimit;
+    }
+
+    /// 使所有 失效偏移量 小于 readOffset 的 mark 失效
+    void invalidateExceeded(long readOffset) {
+        entries.removeIf(e -> {
+            if (e.limitOffset >= readOffset) {
+                return false;
+            }
+            e.valid = false;
+            return true;
+        });
+        updateBounds();
+    }
+
+    /// 移除已被 GC 回收的 mark
+    void expungeStale() {
+        if (queue.poll() == null) {
+            return;
+        }
+        while (queue.poll() != null) {
+            // 清空队列
+        }
+        entries.removeIf(e -> {
+            if (!e.refersTo(null)) {
+                return false;
+            }
+            e.valid = false;
+            return true;
+        });
+        updateBounds();
+    }
+
+    private void updateBounds() {
+        minPosition = MAX_VALUE;
+        minLimit = MAX_VALUE;
+        for (var e : entries) {
+            minPosition = min(minPosition, e.position);
+            minLimit = min(minLimit, e.limitOffset);
+        }
+    }
+
+    /// mark 的弱引用, 同时记录其保留位置 和 失效偏移量 (mark 被回收后仍需要用于重新计算边界)
+    static final class Entry extends WeakReference<Object> {
+
+        final long position;
+        final long limitOffset;
+        /// 为 false 表示 mark 已失效 (已释放, 已超过 readLimit 或 已被回收)
+        private boolean valid;
+
+        private Entry(Object mark, ReferenceQueue<Object> queue, long position, long limitOffset) {
+            super(mark, queue);
+            this.position = position;
+            this.limitOffset = limitOffset;
+            this.valid = true;
+        }
+
+        boolean isValid() {
+            return valid;
+        }
+
+    }
+
+}
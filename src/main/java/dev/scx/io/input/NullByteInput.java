@@ -1,10 +1,13 @@
 package dev.scx.io.input;
 
+import dev.scx.io.ByteIndexCursor;
 import dev.scx.io.ByteInput;
 import dev.scx.io.ByteInputMark;
 import dev.scx.io.ByteMatchResult;
+import dev.scx.io.MutableByteMatchResult;
 import dev.scx.io.consumer.ByteConsumer;
 import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.InvalidMarkException;
 import dev.scx.io.exception.NoMatchFoundException;
 import dev.scx.io.exception.NoMoreDataException;
 import dev.scx.io.indexer.ByteIndexer;
@@ -110,10 +113,53 @@ public final class NullByteInput implements ByteInput {
         throw new NoMatchFoundException();
     }
 
+    @Override
+    public void indexOf(ByteIndexer indexer, long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, InputAlreadyClosedException {
+        ensureOpen();
+
+        if (indexer.isEmptyPattern()) {
+            result.set(0, 0);
+            return;
+        }
+
+        if (maxLength > 0) {
+            throw new NoMoreDataException();
+        }
+
+        throw new NoMatchFoundException();
+    }
+
+    @Override
+    public ByteIndexCursor indexCursor(ByteIndexer indexer) {
+        // 没有数据, 也就没有需要保存的扫描进度
+        return new ByteIndexCursor() {
+
+            @Override
+            public void indexOf(long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, InputAlreadyClosedException {
+                NullByteInput.this.indexOf(indexer, maxLength, result);
+            }
+
+            @Override
+            public void reset() {
+
+            }
+
+        };
+    }
+
     @Override
     public ByteInputMark mark() throws InputAlreadyClosedException {
+        return mark(Long.MAX_VALUE);
+    }
+
+    @Override
+    public ByteInputMark mark(long readLimit) throws InputAlreadyClosedException {
         ensureOpen();
 
+        if (readLimit < 0) {
+            throw new IllegalArgumentException("readLimit must not be negative");
+        }
+
         return new NullByteInputMark(this);
     }
 
@@ -131,11 +177,28 @@ public final class NullByteInput implements ByteInput {
         closed = true;
     }
 
-    private record NullByteInputMark(NullByteInput nullByteInput) implements ByteInputMark {
+    /// 没有任何数据, 所以 readLimit 不会被超过, 只需要记录是否已释放
+    private static final class NullByteInputMark implements ByteInputMark {
+
+        private final NullByteInput nullByteInput;
+        private boolean released;
+
+        private NullByteInputMark(NullByteInput nullByteInput) {
+            this.nullByteInput = nullByteInput;
+            this.released = false;
+        }
 
         @Override
-        public void reset() throws InputAlreadyClosedException {
+        public void reset() throws InvalidMarkException, InputAlreadyClosedException {
             nullByteInput.ensureOpen();
+            if (released) {
+                throw new InvalidMarkException();
+            }
+        }
+
+        @Override
+        public void release() {
+            released = true;
         }
 
     }
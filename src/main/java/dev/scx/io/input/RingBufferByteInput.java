@@ -0,0 +1,638 @@
+package dev.scx.io.input;
+
+import dev.scx.exception.ScxWrappedException;
+import dev.scx.io.ByteChunk;
+import dev.scx.io.ByteIndexCursor;
+import dev.scx.io.ByteInput;
+import dev.scx.io.ByteInputMark;
+import dev.scx.io.ByteMatchResult;
+import dev.scx.io.MutableByteMatchResult;
+import dev.scx.io.consumer.ByteConsumer;
+import dev.scx.io.consumer.EagerByteArrayByteConsumer;
+import dev.scx.io.consumer.FillByteArrayByteConsumer;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.InvalidMarkException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.supplier.ByteSupplier;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
+import static java.lang.Long.MAX_VALUE;
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/// RingBufferByteInput
+///
+/// 通过 [ByteSupplier#borrow()] 拉取数据块, 并将其拷贝到一个可复用的环形缓冲区中.
+///
+/// - 适合 长连接 / 大量小数据块 的场景: 稳定状态下 (没有长期保留的 mark) 不会为拉取的数据分配任何对象或数组.
+/// - 缓冲区容量始终为 2 的幂, 只有当 mark 或 peek 需要保留的数据超过容量时才会扩容 (翻倍).
+/// - 交给 consumer (以及 indexer) 的是缓冲区的视图. 若 consumer 会保留数据块 ([ByteConsumer#retainsChunks()] 为 true, indexer 同理 [ByteIndexer#retainsChunks()]),
+///   之后覆写这部分数据前会换用新的缓冲区 (旧缓冲区留给 consumer), 以满足 [ByteConsumer] 和 [ByteIndexer] 的稳定性约定.
+///   返回 byte[] 的读取方法使用拷贝型 consumer, 不会触发这种情况.
+/// - mark 语义与 [DefaultByteInput] 相同 (readLimit, release, 弱引用登记).
+///
+/// @author scx567888
+public final class RingBufferByteInput implements ByteInput {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 8192;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final ByteSupplier byteSupplier;
+    /// 环形缓冲区, 容量始终为 2 的幂, 绝对偏移量为 offset 的字节位于 buffer[offset & mask]
+    private byte[] buffer;
+    private int mask;
+    /// 整个 buffer 的视图, 查找时直接在其上按区间查找, 不创建 subChunk
+    private ByteChunk bufferChunk;
+    /// 读取位置 和 写入位置 (在整个流中的绝对偏移量)
+    private long readOffset;
+    private long writeOffset;
+    /// 当前 buffer 中交给过 retaining consumer 的最小偏移量 (MAX_VALUE 表示没有)
+    private long exposedOffset;
+    /// 有效的 mark (保留位置为绝对偏移量)
+    private final MarkRegistry marks;
+    private boolean closed;
+
+    public RingBufferByteInput(ByteSupplier byteSupplier) {
+        this(byteSupplier, DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public RingBufferByteInput(ByteSupplier byteSupplier, int initialCapacity) {
+        if (initialCapacity <= 0 || initialCapacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("initialCapacity must be between 1 and " + MAX_CAPACITY);
+        }
+        this.byteSupplier = byteSupplier;
+        // 向上取整到 2 的幂
+        var capacity = Integer.highestOneBit(initialCapacity);
+        if (capacity < initialCapacity) {
+            capacity = capacity << 1;
+        }
+        this.buffer = new byte[capacity];
+        this.mask = capacity - 1;
+        this.bufferChunk = ByteChunk.of(buffer);
+        this.readOffset = 0;
+        this.writeOffset = 0;
+        this.exposedOffset = MAX_VALUE;
+        this.marks = new MarkRegistry();
+        this.closed = false;
+    }
+
+    /// 需要保留的最小偏移量 (读取位置 和 有效 mark 中的最小值)
+    private long retainOffset() {
+        if (readOffset > marks.minLimit()) {
+            marks.invalidateExceeded(readOffset);
+        }
+        if (marks.minPosition() < readOffset) {
+            // 只有存在 mark 阻止覆写时, 才需要检查是否有 mark 已被回收
+            marks.expungeStale();
+        }
+        return min(readOffset, marks.minPosition());
+    }
+
+    /// 从 offset 开始, 在 buffer 中连续 (不跨越环形边界) 的可用长度
+    private int contiguousLength(long offset) {
+        // 这里因为是将 int 和 long 值进行最小值比较 所以返回值一定是 int 所以类型转换不会丢失精度
+        return (int) min(writeOffset - offset, buffer.length - (int) (offset & mask));
+    }
+
+    /// 从 byteSupplier 中持续拉取直到得到有效数据块, 并拷贝到 buffer 中
+    ///
+    /// @return EOF
+    private boolean pull() throws ScxInputException {
+        while (true) {
+            var byteChunk = byteSupplier.borrow();
+            if (byteChunk == null) {
+                return true; // EOF
+            }
+            if (byteChunk.length == 0) {
+                continue;// 空块 我们视为无动作 继续拉取
+            }
+            write(byteChunk);
+            return false;
+        }
+    }
+
+    private void write(ByteChunk byteChunk) throws ScxInputException {
+        var retainOffset = retainOffset();
+        var required = writeOffset - retainOffset + byteChunk.length;
+        if (required > buffer.length) {
+            reallocate(capacityFor(required), retainOffset);
+        } else if (writeOffset + byteChunk.length - buffer.length > exposedOffset) {
+            // 写入会覆写已经交给 retaining consumer 的数据, 换用新的 buffer (旧 buffer 留给 consumer)
+            reallocate(buffer.length, retainOffset);
+        }
+        var position = (int) (writeOffset & mask);
+        var firstLength = min(byteChunk.length, buffer.length - position);
+        System.arraycopy(byteChunk.bytes, byteChunk.start, buffer, position, firstLength);
+        // 跨越环形边界的部分写到 buffer 开头
+        System.arraycopy(byteChunk.bytes, byteChunk.start + firstLength, buffer, 0, byteChunk.length - firstLength);
+        writeOffset += byteChunk.length;
+    }
+
+    private int capacityFor(long required) throws ScxInputException {
+        if (required > MAX_CAPACITY) {
+            throw new ScxInputException("RingBufferByteInput buffer capacity exceeded, required : " + required);
+        }
+        var capacity = buffer.length;
+        while (capacity < required) {
+            capacity = capacity << 1;
+        }
+        return capacity;
+    }
+
+    /// 换用新的 buffer, 并将 [retainOffset, writeOffset) 之间的数据拷贝过去
+    private void reallocate(int capacity, long retainOffset) {
+        var newBuffer = new byte[capacity];
+        var newMask = capacity - 1;
+        var offset = retainOffset;
+        while (offset < writeOffset) {
+            var from = (int) (offset & mask);
+            var to = (int) (offset & newMask);
+            var length = min(contiguousLength(offset), capacity - to);
+            System.arraycopy(buffer, from, newBuffer, to, length);
+            offset += length;
+        }
+        buffer = newBuffer;
+        mask = newMask;
+        bufferChunk = ByteChunk.of(newBuffer);
+        exposedOffset = MAX_VALUE;
+    }
+
+    /// 确保 有数据可用 (至少 1 字节)
+    ///
+    /// @return 调用了几次底层拉取
+    private long ensureAvailable() throws NoMoreDataException, ScxInputException {
+        if (readOffset < writeOffset) {
+            return 0;
+        }
+        var eof = this.pull();
+        if (eof) {
+            throw new NoMoreDataException();
+        }
+        return 1;
+    }
+
+    /// 确保现在是打开状态.
+    private void ensureOpen() throws InputAlreadyClosedException {
+        if (closed) {
+            throw new InputAlreadyClosedException();
+        }
+    }
+
+    /// 底层 的 read
+    ///
+    /// @param consumer     字节消费者
+    /// @param maxLength    希望读取的字节数
+    /// @param movePointer  是否移动指针
+    /// @param maxPullCount 最大允许调用底层 ByteSupplier 的次数 (只对 非空块计数)
+    /// @param throwOnEOF   当遇到 EOF (底层数据源结束), 导致实际读取字节数不足时 是否抛异常
+    private void read0(ByteConsumer consumer, long maxLength, boolean movePointer, long maxPullCount, boolean throwOnEOF) throws NoMoreDataException, ScxInputException, ScxWrappedException {
+
+        var retains = consumer.retainsChunks();
+        var remaining = maxLength; // 剩余需要读取的字节数
+        var offset = readOffset;
+        var pullCount = 0L; // 拉取次数计数器
+
+        while (remaining > 0) {
+
+            // 缓冲的数据已经读完, 需要拉取
+            if (offset == writeOffset) {
+                //已经达到最大拉取次数 直接退出
+                if (pullCount >= maxPullCount) {
+                    break;
+                }
+                var eof = this.pull();
+                // 数据不足
+                if (eof) {
+                    // 不允许 中途 eof
+                    if (throwOnEOF) {
+                        throw new NoMoreDataException();
+                    } else {
+                        // 直接退出
+                        break;
+                    }
+                }
+                pullCount = pullCount + 1;
+            }
+
+            // 跨越环形边界时 分两次交给 consumer
+            var position = (int) (offset & mask);
+            var length = (int) min(contiguousLength(offset), remaining);
+
+            if (retains) {
+                exposedOffset = min(exposedOffset, offset);
+            }
+
+            // 调用消费者 写入数据
+            boolean needMore;
+            try {
+                needMore = consumer.accept(ByteChunk.of(buffer, position, position + length));
+            } catch (Throwable e) {
+                // consumer 中的异常需要包装成 ScxWrappedException
+                throw new ScxWrappedException(e);
+            }
+
+            remaining -= length;
+            offset += length;
+
+            if (movePointer) {
+                readOffset = offset;
+            }
+
+            if (!needMore) {
+                break;
+            }
+
+        }
+
+    }
+
+    /// 结果写入 result, 整个查找过程不分配对象 (除了必要时扩容)
+    private void indexOf0(ByteIndexer indexer, long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, ScxInputException {
+
+        var retains = indexer.retainsChunks();
+        var index = 0L; // 主串索引
+        var offset = readOffset;
+
+        while (index < maxLength) {
+            if (offset == writeOffset) {
+                var eof = this.pull();
+                if (eof) {
+                    break;
+                }
+            }
+            var position = (int) (offset & mask);
+            var length = (int) min(contiguousLength(offset), maxLength - index);
+            if (retains) {
+                exposedOffset = min(exposedOffset, offset);
+            }
+            var packedResult = indexer.indexOfPacked(bufferChunk, position, position + length);
+            // 此处因为支持回溯匹配 所以可能是负数 NO_MATCH 表示真正未找到
+            if (isFullMatch(packedResult)) {
+                result.set(index + unpackIndex(packedResult), unpackMatchedLength(packedResult));
+                return;
+            }
+            index += length;
+            offset += length;
+        }
+
+        throw new NoMatchFoundException();
+    }
+
+    /// 返回 byte[] 的读取方法使用的 consumer (拷贝型, 不会保留缓冲区视图)
+    private EagerByteArrayByteConsumer copyingConsumer(long length) {
+        // 初始容量取 已缓冲的数据 和 期望长度 的较小值, 避免 readAll 时预分配过大
+        return new EagerByteArrayByteConsumer((int) min(length, max(writeOffset - readOffset, 32)));
+    }
+
+    @Override
+    public byte read() throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+
+        ensureAvailable();// 确保 有可用数据
+
+        var b = buffer[(int) (readOffset & mask)];
+        readOffset = readOffset + 1;
+        return b;
+    }
+
+    @Override
+    public void read(ByteConsumer byteConsumer, long maxLength) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        ensureOpen();// 确保 open
+
+        var pulledCount = 0L;
+        if (maxLength > 0) {
+            pulledCount = ensureAvailable();// 确保 有可用数据
+        }
+
+        read0(byteConsumer, maxLength, true, 1 - pulledCount, false);
+    }
+
+    @Override
+    public void readUpTo(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        ensureOpen();// 确保 open
+
+        if (length > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        read0(byteConsumer, length, true, MAX_VALUE, false);
+    }
+
+    @Override
+    public void readFully(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        ensureOpen();// 确保 open
+
+        if (length > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        read0(byteConsumer, length, true, MAX_VALUE, true);
+    }
+
+    @Override
+    public byte peek() throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+
+        ensureAvailable();// 确保 有可用数据
+
+        return buffer[(int) (readOffset & mask)];
+    }
+
+    @Override
+    public void peek(ByteConsumer byteConsumer, long maxLength) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        ensureOpen();// 确保 open
+
+        var pulledCount = 0L;
+        if (maxLength > 0) {
+            pulledCount = ensureAvailable();// 确保 有可用数据
+        }
+
+        read0(byteConsumer, maxLength, false, 1 - pulledCount, false);
+    }
+
+    @Override
+    public void peekUpTo(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        ensureOpen();// 确保 open
+
+        if (length > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        read0(byteConsumer, length, false, MAX_VALUE, false);
+    }
+
+    @Override
+    public void peekFully(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+        ensureOpen();// 确保 open
+
+        if (length > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        read0(byteConsumer, length, false, MAX_VALUE, true);
+    }
+
+    @Override
+    public byte[] read(int maxLength) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+        var consumer = copyingConsumer(maxLength);
+        read(consumer, maxLength);
+        return consumer.bytes();
+    }
+
+    @Override
+    public byte[] readUpTo(int length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+        var consumer = copyingConsumer(length);
+        readUpTo(consumer, length);
+        return consumer.bytes();
+    }
+
+    @Override
+    public byte[] readFully(int length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        // 长度已知, 直接填充
+        var bytes = new byte[length];
+        readFully(new FillByteArrayByteConsumer(bytes), length);
+        return bytes;
+    }
+
+    @Override
+    public byte[] readAll() throws ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+        var consumer = copyingConsumer(MAX_VALUE);
+        readAll(consumer);
+        return consumer.bytes();
+    }
+
+    @Override
+    public byte[] peek(int maxLength) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+        var consumer = copyingConsumer(maxLength);
+        peek(consumer, maxLength);
+        return consumer.bytes();
+    }
+
+    @Override
+    public byte[] peekUpTo(int length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+        var consumer = copyingConsumer(length);
+        peekUpTo(consumer, length);
+        return consumer.bytes();
+    }
+
+    @Override
+    public byte[] peekFully(int length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        // 长度已知, 直接填充
+        var bytes = new byte[length];
+        peekFully(new FillByteArrayByteConsumer(bytes), length);
+        return bytes;
+    }
+
+    @Override
+    public byte[] peekAll() throws ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+        var consumer = copyingConsumer(MAX_VALUE);
+        peekAll(consumer);
+        return consumer.bytes();
+    }
+
+    @Override
+    public ByteMatchResult indexOf(ByteIndexer indexer, long maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+
+        if (indexer.isEmptyPattern()) {
+            return new ByteMatchResult(0, 0);
+        }
+
+        if (maxLength > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        var result = new MutableByteMatchResult();
+        indexOf0(indexer, maxLength, result);
+        return result.toByteMatchResult();
+    }
+
+    @Override
+    public void indexOf(ByteIndexer indexer, long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+
+        if (indexer.isEmptyPattern()) {
+            result.set(0, 0);
+            return;
+        }
+
+        if (maxLength > 0) {
+            ensureAvailable();// 确保 有可用数据
+        }
+
+        indexOf0(indexer, maxLength, result);
+    }
+
+    @Override
+    public ByteIndexCursor indexCursor(ByteIndexer indexer) {
+        return new RingBufferByteIndexCursor(this, indexer);
+    }
+
+    @Override
+    public ByteInputMark mark() throws InputAlreadyClosedException {
+        return mark(MAX_VALUE);
+    }
+
+    @Override
+    public ByteInputMark mark(long readLimit) throws InputAlreadyClosedException {
+        ensureOpen();// 确保 open
+
+        if (readLimit < 0) {
+            throw new IllegalArgumentException("readLimit must not be negative");
+        }
+
+        // 防止溢出
+        var limitOffset = readLimit > MAX_VALUE - readOffset ? MAX_VALUE : readOffset + readLimit;
+        var mark = new RingBufferByteInputMark(this, readOffset);
+        mark.entry = marks.add(mark, readOffset, limitOffset);
+        return mark;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() throws ScxInputException {
+        if (closed) {
+            return;
+        }
+
+        byteSupplier.close();
+        closed = true; // 只有成功关闭才算作 关闭
+    }
+
+    public ByteSupplier byteSupplier() {
+        return byteSupplier;
+    }
+
+    /// 当前缓冲区容量
+    public int capacity() {
+        return buffer.length;
+    }
+
+    private static final class RingBufferByteInputMark implements ByteInputMark {
+
+        private final RingBufferByteInput ringBufferByteInput;
+        private final long offset;
+        /// 登记信息 (包含失效偏移量)
+        private MarkRegistry.Entry entry;
+
+        private RingBufferByteInputMark(RingBufferByteInput ringBufferByteInput, long offset) {
+            this.ringBufferByteInput = ringBufferByteInput;
+            this.offset = offset;
+        }
+
+        @Override
+        public void reset() throws InvalidMarkException, InputAlreadyClosedException {
+            ringBufferByteInput.ensureOpen();// 确保 open
+
+            // 失效检查只在拉取时进行, 所以这里需要再精确判断一次
+            if (!entry.isValid() || ringBufferByteInput.readOffset > entry.limitOffset) {
+                release();
+                throw new InvalidMarkException();
+            }
+
+            // mark 有效期间 其之后的数据不会被覆写, 直接恢复读取位置即可
+            ringBufferByteInput.readOffset = offset;
+        }
+
+        @Override
+        public void release() {
+            // 只需取消登记, 其保留的数据在之后写入时会被覆写
+            ringBufferByteInput.marks.remove(entry);
+        }
+
+    }
+
+    /// 保存 "开始扫描时的读取位置" 和 "上次停止扫描的位置", 读取位置不变时从停止处继续.
+    private static final class RingBufferByteIndexCursor implements ByteIndexCursor {
+
+        private final RingBufferByteInput ringBufferByteInput;
+        private final ByteIndexer indexer;
+        /// 开始扫描时的读取位置, 为 -1 表示需要重新开始
+        private long startOffset;
+        /// 上次停止扫描的位置
+        private long scanOffset;
+
+        private RingBufferByteIndexCursor(RingBufferByteInput ringBufferByteInput, ByteIndexer indexer) {
+            this.ringBufferByteInput = ringBufferByteInput;
+            this.indexer = indexer;
+            this.startOffset = -1;
+        }
+
+        @Override
+        public void indexOf(long maxLength, MutableByteMatchResult result) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+            var input = ringBufferByteInput;
+
+            input.ensureOpen();// 确保 open
+
+            if (indexer.isEmptyPattern()) {
+                result.set(0, 0);
+                return;
+            }
+
+            if (maxLength <= 0) {
+                throw new NoMatchFoundException();
+            }
+
+            input.ensureAvailable();// 确保 有可用数据
+
+            // 读取位置发生了变化 (或上次已匹配成功), 从当前读取位置重新开始
+            if (startOffset != input.readOffset) {
+                indexer.reset();
+                startOffset = input.readOffset;
+                scanOffset = input.readOffset;
+            }
+
+            // 读取位置没有变化, 所以 scanOffset 之后的数据一定没有被覆写
+            var offset = scanOffset;
+            var index = scanOffset - startOffset;
+
+            while (index < maxLength) {
+                if (offset == input.writeOffset) {
+                    var eof = input.pull();
+                    if (eof) {
+                        break;
+                    }
+                }
+                var position = (int) (offset & input.mask);
+                var length = (int) min(input.contiguousLength(offset), maxLength - index);
+                if (indexer.retainsChunks()) {
+                    input.exposedOffset = min(input.exposedOffset, offset);
+                }
+                var packedResult = indexer.indexOfPacked(input.bufferChunk, position, position + length);
+                if (isFullMatch(packedResult)) {
+                    // indexer 已自行重置, 下次从新的读取位置开始
+                    startOffset = -1;
+                    result.set(index + unpackIndex(packedResult), unpackMatchedLength(packedResult));
+                    return;
+                }
+                index += length;
+                offset += length;
+            }
+
+            // 保存进度
+            scanOffset = offset;
+
+            throw new NoMatchFoundException();
+        }
+
+        @Override
+        public void reset() {
+            startOffset = -1;
+        }
+
+    }
+
+}
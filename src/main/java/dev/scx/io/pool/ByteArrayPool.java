@@ -0,0 +1,22 @@
+package dev.scx.io.pool;
+
+/// ByteArrayPool
+///
+/// byte[] 池, 用于 owned 数据块 (ByteSupplier.get) 的数组复用, 减少短生命周期大数组的分配.
+///
+/// - 实现必须是线程安全的 (数组可能在一个线程获取, 在另一个线程归还).
+/// - 归还的数组内容不会被清零, 使用方只能信任自己写入的区间.
+///
+/// @author scx567888
+public interface ByteArrayPool {
+
+    /// 获取一个长度不小于 minLength 的数组 (内容未定义).
+    byte[] acquire(int minLength);
+
+    /// 归还数组.
+    ///
+    /// - 调用方保证之后不再访问该数组, 且同一数组只归还一次.
+    /// - 实现可以直接丢弃不属于自己管理的数组 (如长度不符).
+    void release(byte[] bytes);
+
+}
@@ -0,0 +1,150 @@
+package dev.scx.io.pool;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/// StripedByteArrayPool
+///
+/// 管理固定长度 (arrayLength) 的数组.
+///
+/// - 平台线程优先使用线程本地缓存 (无同步).
+/// - 线程本地缓存 未命中 或 已满 时, 使用共享区. 共享区按线程分为多个条带, 每个条带有若干槽位, 只通过 CAS 存取 (无锁).
+///   线程优先使用自己的条带 (减少竞争), 未命中 或 已满 时从自己的条带开始环绕探测其他条带, 所以一个线程归还的数组可以被另一个线程取到.
+/// - 虚拟线程 数量多且生命周期短, 不使用线程本地缓存, 直接使用共享区.
+/// - 请求的长度大于 arrayLength 时直接分配, 长度不等于 arrayLength 的数组归还时直接丢弃.
+/// - 池满时归还的数组直接丢弃, 池空时直接分配, 所以池中最多保留 (线程数 * threadLocalCapacity + stripeCount * slotsPerStripe) 个数组.
+///
+/// @author scx567888
+public final class StripedByteArrayPool implements ByteArrayPool {
+
+    private final int arrayLength;
+    private final int threadLocalCapacity;
+    private final ThreadLocal<LocalCache> localCache;
+    /// 共享区, 条带 i 的槽位为 [i * slotsPerStripe, (i + 1) * slotsPerStripe)
+    private final AtomicReferenceArray<byte[]> slots;
+    private final int stripeMask;
+    private final int slotsPerStripe;
+
+    public StripedByteArrayPool(int arrayLength) {
+        this(arrayLength, 8, Runtime.getRuntime().availableProcessors(), 8);
+    }
+
+    public StripedByteArrayPool(int arrayLength, int threadLocalCapacity, int stripeCount, int slotsPerStripe) {
+        if (arrayLength <= 0) {
+            throw new IllegalArgumentException("arrayLength must be greater than 0");
+        }
+        if (threadLocalCapacity < 0) {
+            throw new IllegalArgumentException("threadLocalCapacity must not be negative");
+        }
+        if (stripeCount <= 0 || slotsPerStripe <= 0) {
+            throw new IllegalArgumentException("stripeCount and slotsPerStripe must be greater than 0");
+        }
+        // 条带数 向上取整到 2 的幂
+        var stripes = Integer.highestOneBit(stripeCount);
+        if (stripes < stripeCount) {
+            stripes = stripes << 1;
+        }
+        this.arrayLength = arrayLength;
+        this.threadLocalCapacity = threadLocalCapacity;
+        this.localCache = ThreadLocal.withInitial(() -> new LocalCache(threadLocalCapacity));
+        this.slots = new AtomicReferenceArray<>(stripes * slotsPerStripe);
+        this.stripeMask = stripes - 1;
+        this.slotsPerStripe = slotsPerStripe;
+    }
+
+    /// 当前线程使用的条带的起始槽位
+    private int stripeBase(Thread thread) {
+        // 线程 id 通常是连续的, 这里打散一下
+        var hash = Long.hashCode(thread.threadId() * 0x9E3779B97F4A7C15L);
+        return (hash & stripeMask) * slotsPerStripe;
+    }
+
+    private boolean useLocalCache(Thread thread) {
+        return threadLocalCapacity > 0 && !thread.isVirtual();
+    }
+
+    @Override
+    public byte[] acquire(int minLength) {
+        if (minLength > arrayLength) {
+            return new byte[minLength];
+        }
+        var thread = Thread.currentThread();
+        if (useLocalCache(thread)) {
+            var bytes = localCache.get().poll();
+            if (bytes != null) {
+                return bytes;
+            }
+        }
+        // 从当前线程的条带开始, 依次探测所有条带 (跨线程归还的数组通常在其他条带中)
+        var base = stripeBase(thread);
+        var slotCount = slots.length();
+        for (int n = 0; n < slotCount; n = n + 1) {
+            var i = base + n < slotCount ? base + n : base + n - slotCount;
+            // 先读再交换, 避免对空槽位做无意义的写
+            if (slots.get(i) != null) {
+                var bytes = slots.getAndSet(i, null);
+                if (bytes != null) {
+                    return bytes;
+                }
+            }
+        }
+        return new byte[arrayLength];
+    }
+
+    @Override
+    public void release(byte[] bytes) {
+        if (bytes.length != arrayLength) {
+            return;
+        }
+        var thread = Thread.currentThread();
+        if (useLocalCache(thread) && localCache.get().offer(bytes)) {
+            return;
+        }
+        // 同 acquire, 当前线程的条带已满时 依次探测其他条带
+        var base = stripeBase(thread);
+        var slotCount = slots.length();
+        for (int n = 0; n < slotCount; n = n + 1) {
+            var i = base + n < slotCount ? base + n : base + n - slotCount;
+            if (slots.get(i) == null && slots.compareAndSet(i, null, bytes)) {
+                return;
+            }
+        }
+        // 池已满, 直接丢弃
+    }
+
+    public int arrayLength() {
+        return arrayLength;
+    }
+
+    /// 线程本地缓存 (栈)
+    private static final class LocalCache {
+
+        private final byte[][] arrays;
+        private int size;
+
+        private LocalCache(int capacity) {
+            this.arrays = new byte[capacity][];
+            this.size = 0;
+        }
+
+        private byte[] poll() {
+            if (size == 0) {
+                return null;
+            }
+            size = size - 1;
+            var bytes = arrays[size];
+            arrays[size] = null;
+            return bytes;
+        }
+
+        private boolean offer(byte[] bytes) {
+            if (size == arrays.length) {
+                return false;
+            }
+            arrays[size] = bytes;
+            size = size + 1;
+            return true;
+        }
+
+    }
+
+}
@@ -0,0 +1,111 @@
+package dev.scx.io.supplier;
+
+import java.util.ArrayList;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+
+/// AdaptiveBufferLength
+///
+/// 根据实际读取的长度, 预测下一次读取使用的缓冲区长度 (参考 Netty 的 AdaptiveRecvByteBufAllocator).
+///
+/// - 长度取自一张档位表: 16 到 496 之间每 16 一档, 之后每次翻倍.
+/// - 读满缓冲区后 立即增大 4 档.
+/// - 连续两次读取的长度 都不超过 小一档的长度 时 缩小 1 档.
+/// - 长度始终在 [minimum, maximum] 之间.
+///
+/// 有状态, 每个 ByteSupplier 需要使用独立的实例.
+///
+/// @author scx567888
+public final class AdaptiveBufferLength {
+
+    private static final int INDEX_INCREMENT = 4;
+    private static final int INDEX_DECREMENT = 1;
+
+    private static final int[] SIZE_TABLE = buildSizeTable();
+
+    private final int minimum;
+    private final int maximum;
+    private final int minIndex;
+    private final int maxIndex;
+    private int index;
+    private int nextLength;
+    private boolean decreaseNow;
+
+    public AdaptiveBufferLength() {
+        this(64, 8192, 65536);
+    }
+
+    public AdaptiveBufferLength(int minimum, int initial, int maximum) {
+        if (minimum <= 0) {
+            throw new IllegalArgumentException("minimum must be greater than 0");
+        }
+        if (initial < minimum || initial > maximum) {
+            throw new IllegalArgumentException("initial must be between minimum and maximum");
+        }
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.minIndex = sizeTableIndex(minimum);
+        this.maxIndex = sizeTableIndex(maximum);
+        this.index = sizeTableIndex(initial);
+        this.nextLength = initial;
+        this.decreaseNow = false;
+    }
+
+    private static int[] buildSizeTable() {
+        var sizes = new ArrayList<Integer>();
+        for (int i = 16; i < 512; i = i + 16) {
+            sizes.add(i);
+        }
+        // 翻倍直到溢出
+        for (int i = 512; i > 0; i = i << 1) {
+            sizes.add(i);
+        }
+        var table = new int[sizes.size()];
+        for (int i = 0; i < table.length; i = i + 1) {
+            table[i] = sizes.get(i);
+        }
+        return table;
+    }
+
+    /// 第一个 不小于 size 的档位 (size 超过最大档位时 返回最后一档)
+    private static int sizeTableIndex(int size) {
+        var low = 0;
+        var high = SIZE_TABLE.length - 1;
+        while (low < high) {
+            var mid = (low + high) >>> 1;
+            if (SIZE_TABLE[mid] < size) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private void moveTo(int newIndex) {
+        index = newIndex;
+        nextLength = min(max(SIZE_TABLE[newIndex], minimum), maximum);
+    }
+
+    /// 下一次读取应使用的缓冲区长度
+    public int nextLength() {
+        return nextLength;
+    }
+
+    /// 记录一次读取实际得到的字节数
+    public void record(int actualLength) {
+        if (actualLength <= SIZE_TABLE[max(0, index - INDEX_DECREMENT)]) {
+            if (decreaseNow) {
+                moveTo(max(index - INDEX_DECREMENT, minIndex));
+                decreaseNow = false;
+            } else {
+                decreaseNow = true;
+            }
+        } else if (actualLength >= nextLength) {
+            moveTo(min(index + INDEX_INCREMENT, maxIndex));
+            decreaseNow = false;
+        }
+    }
+
+}
@@ -12,8 +12,7 @@ import dev.scx.io.indexer.ByteIndexer;
 import java.util.LinkedList;
 
 import static dev.scx.io.ByteChunk.EMPTY_BYTE_CHUNK;
-import static dev.scx.io.indexer.StatusByteMatchResult.Status.FULL_MATCH;
-import static dev.scx.io.indexer.StatusByteMatchResult.Status.NO_MATCH;
+import static dev.scx.io.indexer.StatusByteMatchResult.*;
 
 /// BoundaryByteSupplier
 ///
@@ -62,6 +61,8 @@ public final class BoundaryByteSupplier implements ByteSupplier {
             // 只有 cache 为空时才 mark, 因为 cache 非空意味着 boundary 已经部分出现在之前的 chunk,
             // 如果再 mark, 就无法保证 reset 后 boundary 的完整性
             if (cache.isEmpty()) {
+                // 上一个 mark 已经不再需要, 及时释放, 避免其之后的数据一直保留在内存中
+                releaseMark();
                 mark = byteInput.mark();
             }
         }
@@ -72,6 +73,7 @@ public final class BoundaryByteSupplier implements ByteSupplier {
         } catch (NoMoreDataException e) {
             // 遇到 EOF
             isFinish = true;
+            releaseMark();
             // 缓存中也没有数据, 返回 null
             if (cache.isEmpty()) {
                 return null;
@@ -85,15 +87,17 @@ public final class BoundaryByteSupplier implements ByteSupplier {
         // 4, 读取当前块
         var byteChunk = consumer.byteChunk();
 
-        // 5, 计算 索引
-        var indexMatchResult = byteIndexer.indexOf(byteChunk);
+        // 5, 计算 索引 (使用打包形式, 避免每个块分配结果对象)
+        var packedResult = byteIndexer.indexOfPacked(byteChunk, 0, byteChunk.length);
 
         // 6, 匹配到了 应该终结
-        if (indexMatchResult.status == FULL_MATCH) {
+        if (isFullMatch(packedResult)) {
+            // 匹配到的索引
+            var index = unpackIndex(packedResult);
             // 匹配的长度
-            var matchedLength = indexMatchResult.matchedLength;
+            var matchedLength = unpackMatchedLength(packedResult);
             // 计算针对当前块来说的 安全索引.
-            var safeLength = indexMatchResult.index + matchedLength;
+            var safeLength = index + matchedLength;
 
             var sourceSkipLength = safeLength;
 
@@ -101,12 +105,13 @@ public final class BoundaryByteSupplier implements ByteSupplier {
             if (keepBoundaryInSource) {
                 if (mark != null) {
                     mark.reset(); // 回到此次 chunk 之前
+                    releaseMark();
                 }
                 var cacheLength = 0;
                 for (var chunk : cache) {
                     cacheLength += chunk.length;
                 }
-                sourceSkipLength = cacheLength + indexMatchResult.index;
+                sourceSkipLength = cacheLength + index;
             }
 
             // 按照常规流程, 这里的 skipFully 只可能读取缓冲区中的数据, 也就是说理论上不可能出现 NoMoreDataException.
@@ -121,7 +126,7 @@ public final class BoundaryByteSupplier implements ByteSupplier {
             if (cache.isEmpty()) {
                 // 根据方法行为设定, 返回的块不应包含 分隔符.
                 // 这里既然没有缓存 就说明 当前块中包含了完整的 boundary, 所以直接使用 i 进行 截断是安全的.
-                return byteChunk.subChunk(0, indexMatchResult.index);
+                return byteChunk.subChunk(0, index);
             } else {
                 // 这里既然有缓存, 就说明当前分块只是包含了部分的 boundary.
                 // 所以不能直接使用 i 截断, 而是应该使用 safeLength.
@@ -138,7 +143,7 @@ public final class BoundaryByteSupplier implements ByteSupplier {
         }
 
         // 7, 未匹配到, 需要判断是 完全未匹配 还是 部分匹配
-        if (indexMatchResult.status == NO_MATCH) { // 完全未匹配 表示当前块可以 安全使用
+        if (packedResult == NO_MATCH_PACKED) { // 完全未匹配 表示当前块可以 安全使用
             // 异常相关说明, 参考上面的 byteInput.skipFully(safeLength);
             byteInput.skipFully(byteChunk.length);
             // 如果当前缓存 没有数据直接返回 否则添加到缓存中等待下次 读取
@@ -165,6 +170,13 @@ public final class BoundaryByteSupplier implements ByteSupplier {
 
     }
 
+    private void releaseMark() {
+        if (mark != null) {
+            mark.release();
+            mark = null;
+        }
+    }
+
     private void trimTailBytes(int length) {
         while (length > 0) {
             var last = cache.pollLast();
@@ -198,6 +210,7 @@ public final class BoundaryByteSupplier implements ByteSupplier {
 
     @Override
     public void close() throws ScxInputException {
+        releaseMark();
         byteInput.close();
     }
 
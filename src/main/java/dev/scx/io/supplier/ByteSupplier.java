@@ -45,6 +45,17 @@ public interface ByteSupplier extends AutoCloseable {
         return get();
     }
 
+    /// 归还一个不再使用的数据块
+    ///
+    /// 供使用 [dev.scx.io.pool.ByteArrayPool] 的实现回收 get() 分配的数组, 默认什么都不做.
+    ///
+    /// - 只能对 get() 返回的数据块调用, 且最多一次.
+    /// - 调用方保证之后不再访问该数据块 (包括其引用的 byte[]), 也没有把它交给任何可能保留它的一方.
+    /// - 可以在 close 之后调用.
+    default void release(ByteChunk byteChunk) {
+
+    }
+
     /// - 如果持有底层资源, 在此方法释放资源.
     /// - 此方法为幂等.
     /// - 为了防止 异常冲突 close 不允许抛出任何易混淆异常 如 [InputAlreadyClosedException].
@@ -3,6 +3,10 @@ package dev.scx.io.supplier;
 import dev.scx.io.ByteChunk;
 import dev.scx.io.exception.ScxInputException;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -10,19 +14,56 @@ import java.util.List;
 ///
 /// 可以缓存上游 byteSupplier, 调用 reset 可以从头回放 (指创建 CacheByteSupplier 的瞬间)
 ///
+/// 指定 memoryLimit 时, 只有前 memoryLimit 字节的数据块保存在内存中, 之后的数据追加到临时文件 (溢出),
+/// 回放时先回放内存中的数据块, 再通过 [FileByteSupplier] 读取临时文件.
+///
+/// - 溢出的部分不保存空块.
+/// - close 关闭上游 和 打开的文件句柄, 并立即删除临时文件.
+///   之后只有没有溢出过的缓存 仍可以 reset 回放, 回放已删除的临时文件会抛出 [ScxInputException].
+///   所以需要多次回放时 (例如 每次回放都用新的 ByteInput 包装并关闭), 请用 [dev.scx.io.ScxIO#noClose(ByteSupplier)] 隔离 ByteInput 的 close,
+///   全部回放结束后 再 close (或 discard) CacheByteSupplier.
+/// - 未 close 时, 临时文件会在 CacheByteSupplier 被 GC 回收后删除 (兜底, 不应依赖).
+///
 /// @author scx567888
 public final class CacheByteSupplier implements ByteSupplier {
 
+    private static final Cleaner CLEANER = Cleaner.create();
+
     private final ByteSupplier byteSupplier;
     private final List<ByteChunk> cache;
+    private final long memoryLimit;
+    private long memoryLength;
     private int chunkIndex;
     private boolean isFinish;
 
+    /// 溢出的临时文件 (第一次溢出时创建), 写入流, 以及已写入的长度
+    private File spillFile;
+    private Cleaner.Cleanable spillFileCleanable;
+    private FileOutputStream spillOutput;
+    private long spillLength;
+    /// 回放临时文件的 supplier 和 已回放的长度 (等于 spillLength 表示回放完成)
+    private FileByteSupplier spillReplay;
+    private long spillReplayPosition;
+    private boolean closed;
+
     public CacheByteSupplier(ByteSupplier byteSupplier) {
+        this(byteSupplier, Long.MAX_VALUE);
+    }
+
+    /// @param memoryLimit 内存中最多缓存的字节数, 超出的部分写入临时文件
+    public CacheByteSupplier(ByteSupplier byteSupplier, long memoryLimit) {
+        if (memoryLimit < 0) {
+            throw new IllegalArgumentException("memoryLimit must not be negative");
+        }
         this.byteSupplier = byteSupplier;
         this.cache = new ArrayList<>();
+        this.memoryLimit = memoryLimit;
+        this.memoryLength = 0;
         this.chunkIndex = 0;
         this.isFinish = false;
+        this.spillLength = 0;
+        this.spillReplayPosition = 0;
+        this.closed = false;
     }
 
     @Override
@@ -35,34 +76,149 @@ public final class CacheByteSupplier implements ByteSupplier {
             return chunk;
         }
 
-        // 2, 完成了就永远返回 null
+        // 2, 然后回放临时文件
+        if (spillReplayPosition < spillLength) {
+            return replaySpill();
+        }
+
+        // 3, 完成了就永远返回 null
         if (isFinish) {
             return null;
         }
 
         var chunk = byteSupplier.get();
 
-        // 3, 遇到 EOF
+        // 4, 遇到 EOF
         if (chunk == null) {
             isFinish = true;
             return null;
         }
 
-        // 4, 即使是空块 我们也 保存, 保证对上游的 0 干涉.
-        cache.add(chunk);
-        chunkIndex = chunkIndex + 1;
+        // 5, 还没有溢出 且 内存足够, 即使是空块 我们也 保存, 保证对上游的 0 干涉.
+        if (spillFile == null && chunk.length <= memoryLimit - memoryLength) {
+            cache.add(chunk);
+            memoryLength += chunk.length;
+            chunkIndex = chunkIndex + 1;
+            return chunk;
+        }
+
+        // 6, 溢出到临时文件 (之后的数据都写入临时文件, 保证顺序)
+        spill(chunk);
+        return chunk;
+
+    }
+
+    private ByteChunk replaySpill() throws ScxInputException {
+        if (closed) {
+            throw new ScxInputException("spill file already deleted by close");
+        }
+        if (spillReplay == null) {
+            spillReplay = new FileByteSupplier(spillFile, spillReplayPosition, spillLength - spillReplayPosition);
+        }
+        var chunk = spillReplay.get();
+        if (chunk == null) {
+            throw new ScxInputException("spill file truncated : " + spillFile);
+        }
+        spillReplayPosition += chunk.length;
+        // 回放完成, 立即释放文件句柄
+        if (spillReplayPosition == spillLength) {
+            closeSpillReplay();
+        }
         return chunk;
+    }
 
+    private void spill(ByteChunk chunk) throws ScxInputException {
+        // close 之后上游可能仍有数据 (如上游隔离了 close), 但临时文件已删除, 不能再溢出
+        if (closed) {
+            throw new ScxInputException("spill file already deleted by close");
+        }
+        try {
+            if (spillFile == null) {
+                spillFile = File.createTempFile("scx-io-cache", ".tmp");
+                spillFileCleanable = CLEANER.register(this, new DeleteFile(spillFile));
+            }
+            if (spillOutput == null) {
+                spillOutput = new FileOutputStream(spillFile);
+            }
+            spillOutput.write(chunk.bytes, chunk.start, chunk.length);
+        } catch (IOException e) {
+            throw new ScxInputException(e);
+        }
+        spillLength += chunk.length;
+        spillReplayPosition = spillLength;
+    }
+
+    private void closeSpillReplay() throws ScxInputException {
+        if (spillReplay != null) {
+            var replay = spillReplay;
+            spillReplay = null;
+            replay.close();
+        }
+    }
+
+    private void closeSpillOutput() throws ScxInputException {
+        if (spillOutput != null) {
+            var output = spillOutput;
+            spillOutput = null;
+            try {
+                output.close();
+            } catch (IOException e) {
+                throw new ScxInputException(e);
+            }
+        }
     }
 
     @Override
     public void close() throws ScxInputException {
-        // 此处依赖上游 ByteSupplier 的 close 幂等.
-        byteSupplier.close();
+        closed = true;
+        try {
+            // 此处依赖上游 ByteSupplier 的 close 幂等.
+            byteSupplier.close();
+        } finally {
+            try {
+                closeSpillOutput();
+            } finally {
+                try {
+                    closeSpillReplay();
+                } finally {
+                    // 先关闭文件句柄 再删除临时文件 (clean 幂等)
+                    if (spillFileCleanable != null) {
+                        spillFileCleanable.clean();
+                    }
+                }
+            }
+        }
     }
 
     public void reset() {
         chunkIndex = 0;
+        spillReplayPosition = 0;
+        // 下次从临时文件开头重新读取
+        closeSpillReplay();
+    }
+
+    /// close 并丢弃所有缓存 (包括内存中的数据块), 之后不能再使用.
+    public void discard() throws ScxInputException {
+        try {
+            close();
+        } finally {
+            cache.clear();
+        }
+    }
+
+    /// 当前写入临时文件的字节数 (没有溢出时为 0)
+    public long spilledLength() {
+        return spillLength;
+    }
+
+    /// 删除临时文件 (不能引用 CacheByteSupplier 本身, 否则永远不会被回收)
+    private record DeleteFile(File file) implements Runnable {
+
+        @Override
+        public void run() {
+            file.delete();
+        }
+
     }
 
 }
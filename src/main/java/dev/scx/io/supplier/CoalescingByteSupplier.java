@@ -0,0 +1,165 @@
+package dev.scx.io.supplier;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.ScxInputException;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/// CoalescingByteSupplier
+///
+/// 将上游连续的小数据块合并到一个缓冲区中 (最多 targetSize 字节) 再交给下游, 减少下游每个数据块的开销 (节点, subChunk, consumer 回调).
+///
+/// - 缓冲区为空时, 长度不小于 targetSize 的数据块直接透传, 不拷贝.
+/// - 放不进缓冲区剩余空间的数据块会留到下一次, 先交出已合并的数据 (数据块不会被拆分).
+/// - 上游数据块没有填满其底层数组时 (如 InputStream 的一次读取没有读满缓冲区), 视为上游暂时没有更多就绪的数据,
+///   立即交出已合并的数据 (缓冲区为空时直接透传), 不会再次拉取 (参考 Netty 的做法).
+///   所以 "请求-响应" 式的交互连接 不会因为等待合并而阻塞在下一次拉取上.
+///   反之 填满底层数组的数据块 (如 读满缓冲区, 或 [ByteArrayByteSupplier] 的数据块) 视为后续数据已就绪, 会继续合并.
+/// - maxLatency: 从缓冲第一个字节开始计时, 超过后即使缓冲区未满也立即交出.
+///   计时只在两次上游拉取之间检查, 无法打断一次阻塞中的拉取.
+/// - borrow() 复用同一个缓冲区, get() 每次分配新的缓冲区.
+///
+/// @author scx567888
+public final class CoalescingByteSupplier implements ByteSupplier {
+
+    private final ByteSupplier byteSupplier;
+    private final int targetSize;
+    private final long maxLatencyNanos;
+    /// borrow() 复用的缓冲区
+    private byte[] buffer;
+    /// 上一次放不进缓冲区 留到下一次的数据块, 以及其是否为 owned (来自上游 get)
+    private ByteChunk pending;
+    private boolean pendingOwned;
+    private boolean eof;
+
+    public CoalescingByteSupplier(ByteSupplier byteSupplier) {
+        this(byteSupplier, 8192);
+    }
+
+    public CoalescingByteSupplier(ByteSupplier byteSupplier, int targetSize) {
+        this(byteSupplier, targetSize, null);
+    }
+
+    /// @param maxLatency 为 null 表示不限制
+    public CoalescingByteSupplier(ByteSupplier byteSupplier, int targetSize, Duration maxLatency) {
+        if (targetSize <= 0) {
+            throw new IllegalArgumentException("targetSize must be greater than 0");
+        }
+        if (maxLatency != null && maxLatency.isNegative()) {
+            throw new IllegalArgumentException("maxLatency must not be negative");
+        }
+        this.byteSupplier = byteSupplier;
+        this.targetSize = targetSize;
+        this.maxLatencyNanos = maxLatency != null ? saturatedNanos(maxLatency) : Long.MAX_VALUE;
+        this.pending = null;
+        this.pendingOwned = false;
+        this.eof = false;
+    }
+
+    private static long saturatedNanos(Duration duration) {
+        try {
+            return duration.toNanos();
+        } catch (ArithmeticException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    /// @param owned 是否需要 owned 语义 (get)
+    private ByteChunk next(boolean owned) throws ScxInputException {
+        byte[] bytes = null;
+        var length = 0;
+        var startTime = 0L;
+        while (true) {
+            ByteChunk chunk;
+            boolean chunkOwned;
+            if (pending != null) {
+                chunk = pending;
+                chunkOwned = pendingOwned;
+                pending = null;
+            } else if (eof) {
+                chunk = null;
+                chunkOwned = false;
+            } else {
+                chunk = owned ? byteSupplier.get() : byteSupplier.borrow();
+                chunkOwned = owned;
+            }
+
+            if (chunk == null) {
+                eof = true;
+                return length > 0 ? ByteChunk.of(bytes, 0, length) : null;
+            }
+
+            if (chunk.length == 0) {
+                continue;// 空块 我们视为无动作 继续拉取
+            }
+
+            var ready = isFilled(chunk);
+
+            // 大数据块 或 上游暂时没有更多数据时, 直接透传
+            if (length == 0 && (chunk.length >= targetSize || !ready)) {
+                if (owned && !chunkOwned) {
+                    // 上一次 borrow 留下的数据块, 需要拷贝才能满足 owned 语义
+                    return ByteChunk.of(Arrays.copyOfRange(chunk.bytes, chunk.start, chunk.start + chunk.length));
+                }
+                return chunk;
+            }
+
+            // 剩余空间放不下, 先交出已合并的数据 (此时 length 一定大于 0)
+            if (chunk.length > targetSize - length) {
+                pending = chunk;
+                pendingOwned = chunkOwned;
+                return ByteChunk.of(bytes, 0, length);
+            }
+
+            if (bytes == null) {
+                bytes = owned ? new byte[targetSize] : borrowBuffer();
+                if (maxLatencyNanos != Long.MAX_VALUE) {
+                    startTime = System.nanoTime();
+                }
+            }
+            System.arraycopy(chunk.bytes, chunk.start, bytes, length, chunk.length);
+            length += chunk.length;
+
+            if (length == targetSize || !ready) {
+                return ByteChunk.of(bytes, 0, length);
+            }
+
+            if (maxLatencyNanos != Long.MAX_VALUE && System.nanoTime() - startTime >= maxLatencyNanos) {
+                return ByteChunk.of(bytes, 0, length);
+            }
+        }
+    }
+
+    /// 数据块是否填满了其底层数组 (即上游的这次读取没有 "读不满")
+    private static boolean isFilled(ByteChunk chunk) {
+        return chunk.start == 0 && chunk.length == chunk.bytes.length;
+    }
+
+    private byte[] borrowBuffer() {
+        if (buffer == null) {
+            buffer = new byte[targetSize];
+        }
+        return buffer;
+    }
+
+    @Override
+    public ByteChunk get() throws ScxInputException {
+        return next(true);
+    }
+
+    @Override
+    public ByteChunk borrow() throws ScxInputException {
+        return next(false);
+    }
+
+    @Override
+    public void close() throws ScxInputException {
+        byteSupplier.close();
+    }
+
+    public ByteSupplier byteSupplier() {
+        return byteSupplier;
+    }
+
+}
@@ -28,6 +28,11 @@ public final class DrainOnCloseByteSupplier implements ByteSupplier {
         return byteSupplier.borrow();
     }
 
+    @Override
+    public void release(ByteChunk byteChunk) {
+        byteSupplier.release(byteChunk);
+    }
+
     @Override
     public void close() throws ScxInputException {
 
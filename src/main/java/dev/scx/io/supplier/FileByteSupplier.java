@@ -2,6 +2,7 @@ package dev.scx.io.supplier;
 
 import dev.scx.io.ByteChunk;
 import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.pool.ByteArrayPool;
 
 import java.io.File;
 import java.io.IOException;
@@ -11,11 +12,18 @@ import static java.lang.Math.min;
 
 /// FileByteSupplier
 ///
+/// 指定 [AdaptiveBufferLength] 时, 每次读取的长度会根据之前实际读取的长度调整 (文件读取通常都能读满, 所以会很快增大到上限).
+///
+/// 指定 [ByteArrayPool] 时, get() 从池中获取数组, 并在 [#release(ByteChunk)] 时归还.
+/// 池只能与固定的 bufferLength 一起使用, 原因参考 [InputStreamByteSupplier].
+///
 /// @author scx567888
 public final class FileByteSupplier implements ByteSupplier {
 
     private final RandomAccessFile randomAccessFile;
     private final int bufferLength;
+    private final AdaptiveBufferLength adaptiveBufferLength;
+    private final ByteArrayPool pool;
     private long remaining;
     private byte[] buffer;
 
@@ -32,6 +40,23 @@ public final class FileByteSupplier implements ByteSupplier {
     }
 
     public FileByteSupplier(File file, long offset, long length, int bufferLength) throws ScxInputException {
+        this(file, offset, length, bufferLength, null);
+    }
+
+    /// @param pool 为 null 表示不使用池
+    public FileByteSupplier(File file, long offset, long length, int bufferLength, ByteArrayPool pool) throws ScxInputException {
+        this(file, offset, length, bufferLength, null, pool);
+    }
+
+    public FileByteSupplier(File file, AdaptiveBufferLength adaptiveBufferLength) throws ScxInputException {
+        this(file, 0, file.length(), adaptiveBufferLength);
+    }
+
+    public FileByteSupplier(File file, long offset, long length, AdaptiveBufferLength adaptiveBufferLength) throws ScxInputException {
+        this(file, offset, length, adaptiveBufferLength.nextLength(), adaptiveBufferLength, null);
+    }
+
+    private FileByteSupplier(File file, long offset, long length, int bufferLength, AdaptiveBufferLength adaptiveBufferLength, ByteArrayPool pool) throws ScxInputException {
         // 检查边界情况
         if (offset < 0 || length < 0 || offset + length > file.length()) {
             throw new IllegalArgumentException("offset/length out of file bounds");
@@ -40,6 +65,8 @@ public final class FileByteSupplier implements ByteSupplier {
             throw new IllegalArgumentException("bufferLength must be greater than 0");
         }
         this.bufferLength = bufferLength;
+        this.adaptiveBufferLength = adaptiveBufferLength;
+        this.pool = pool;
         this.remaining = length;
         try {
             this.randomAccessFile = createRandomAccessFile(file, offset);
@@ -67,13 +94,28 @@ public final class FileByteSupplier implements ByteSupplier {
         }
     }
 
+    /// 本次读取使用的长度
+    private int nextBufferLength() {
+        return adaptiveBufferLength != null ? adaptiveBufferLength.nextLength() : bufferLength;
+    }
+
+    private void recordRead(int length) {
+        if (adaptiveBufferLength != null) {
+            adaptiveBufferLength.record(length);
+        }
+    }
+
     public ByteChunk get0() throws IOException {
         // 读取够了
         if (remaining <= 0) {
             return null;
         }
+        if (pool != null) {
+            // 池只与固定的 bufferLength 一起使用
+            return getPooled((int) min(bufferLength, remaining));
+        }
         // 计算本次最多能读多少.
-        var needLength = (int) min(bufferLength, remaining);
+        var needLength = (int) min(nextBufferLength(), remaining);
         // 这里每次都创建一个 byte 数组的原因参考 InputStreamByteSupplier
         var bytes = new byte[needLength];
         // 读取
@@ -81,6 +123,25 @@ public final class FileByteSupplier implements ByteSupplier {
         if (i == -1) {
             return null; // 处理文件结束情况
         }
+        recordRead(i);
+        remaining -= i;
+        return ByteChunk.of(bytes, 0, i);
+    }
+
+    private ByteChunk getPooled(int needLength) throws IOException {
+        // 池中的数组可能比 needLength 长
+        var bytes = pool.acquire(needLength);
+        int i;
+        try {
+            i = randomAccessFile.read(bytes, 0, needLength);
+        } catch (IOException e) {
+            pool.release(bytes);
+            throw e;
+        }
+        if (i == -1) {
+            pool.release(bytes);
+            return null; // 处理文件结束情况
+        }
         remaining -= i;
         return ByteChunk.of(bytes, 0, i);
     }
@@ -91,8 +152,9 @@ public final class FileByteSupplier implements ByteSupplier {
             return null;
         }
         // 计算本次最多能读多少.
-        var needLength = (int) min(bufferLength, remaining);
-        if (buffer == null) {
+        var needLength = (int) min(nextBufferLength(), remaining);
+        // 缓冲区只增大不缩小 (复用的缓冲区 没有必要缩小)
+        if (buffer == null || buffer.length < needLength) {
             buffer = new byte[needLength];
         }
         // 读取
@@ -100,6 +162,7 @@ public final class FileByteSupplier implements ByteSupplier {
         if (i == -1) {
             return null; // 处理文件结束情况
         }
+        recordRead(i);
         remaining -= i;
         return ByteChunk.of(buffer, 0, i);
     }
@@ -127,6 +190,14 @@ public final class FileByteSupplier implements ByteSupplier {
         }
     }
 
+    @Override
+    public void release(ByteChunk byteChunk) {
+        // borrow 的缓冲区 不属于池
+        if (pool != null && byteChunk.bytes != buffer) {
+            pool.release(byteChunk.bytes);
+        }
+    }
+
     @Override
     public void close() throws ScxInputException {
         try {
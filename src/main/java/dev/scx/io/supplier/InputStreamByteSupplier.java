@@ -2,6 +2,7 @@ package dev.scx.io.supplier;
 
 import dev.scx.io.ByteChunk;
 import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.pool.ByteArrayPool;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -14,11 +15,21 @@ import java.io.InputStream;
 ///
 /// 这时建议使用  [BufferedInputStreamByteSupplier]
 ///
+/// 3, 指定 [AdaptiveBufferLength] 时, 每次读取的长度会根据之前实际读取的长度调整 (代替固定的 bufferLength),
+/// 适合消息长度差异很大的连接 (小消息时分配更小的数组, 大量传输时使用更大的数组)
+///
+/// 4, 指定 [ByteArrayPool] 时, get() 从池中获取数组, 并在 [#release(ByteChunk)] 时归还 (如 [dev.scx.io.input.DefaultByteInput] 释放数据块时).
+/// 池只能与固定的 bufferLength 一起使用, 所以没有同时接收 [AdaptiveBufferLength] 和 [ByteArrayPool] 的构造函数:
+/// 现有的池 (如 [dev.scx.io.pool.StripedByteArrayPool]) 只管理固定长度的数组, 而 AdaptiveBufferLength 的长度会在档位间变化,
+/// 比池中数组长的请求每次都会直接分配 且归还时被丢弃, 比池中数组短的请求又会拿到整个大数组, 两者的收益会互相抵消.
+///
 /// @author scx567888
 public final class InputStreamByteSupplier implements ByteSupplier {
 
     private final InputStream inputStream;
     private final int bufferLength;
+    private final AdaptiveBufferLength adaptiveBufferLength;
+    private final ByteArrayPool pool;
     private byte[] buffer;
 
     public InputStreamByteSupplier(InputStream inputStream) {
@@ -26,34 +37,85 @@ public final class InputStreamByteSupplier implements ByteSupplier {
     }
 
     public InputStreamByteSupplier(InputStream inputStream, int bufferLength) {
+        this(inputStream, bufferLength, null);
+    }
+
+    /// @param pool 为 null 表示不使用池
+    public InputStreamByteSupplier(InputStream inputStream, int bufferLength, ByteArrayPool pool) {
         if (bufferLength <= 0) {
             throw new IllegalArgumentException("bufferLength must be greater than 0");
         }
         this.inputStream = inputStream;
         this.bufferLength = bufferLength;
+        this.adaptiveBufferLength = null;
+        this.pool = pool;
+    }
+
+    public InputStreamByteSupplier(InputStream inputStream, AdaptiveBufferLength adaptiveBufferLength) {
+        this.inputStream = inputStream;
+        this.bufferLength = adaptiveBufferLength.nextLength();
+        this.adaptiveBufferLength = adaptiveBufferLength;
+        this.pool = null;
+    }
+
+    /// 本次读取使用的长度
+    private int nextBufferLength() {
+        return adaptiveBufferLength != null ? adaptiveBufferLength.nextLength() : bufferLength;
+    }
+
+    private void recordRead(int length) {
+        if (adaptiveBufferLength != null) {
+            adaptiveBufferLength.record(length);
+        }
     }
 
     public ByteChunk get0() throws IOException {
+        if (pool != null) {
+            // 池只与固定的 bufferLength 一起使用
+            return getPooled();
+        }
+        var length = nextBufferLength();
         // 这里每次都创建一个 byte 数组是因为我们后续需要直接使用 这个数组
         // 即使使用成员变量 来作为缓冲 buffer
         // 也是需要重新分配 一个新的数组 来将数据复制过去 所以本质上并没有区别
         // 甚至这种情况再同时持有多个 InputStreamByteSupplier 的时候 内存占用会更少 因为没有成员变量
-        var bytes = new byte[bufferLength];
+        var bytes = new byte[length];
         int i = inputStream.read(bytes);
         if (i == -1) {
             return null; // 数据结束
         }
+        recordRead(i);
+        return ByteChunk.of(bytes, 0, i);
+    }
+
+    private ByteChunk getPooled() throws IOException {
+        // 池中的数组可能比 bufferLength 长
+        var bytes = pool.acquire(bufferLength);
+        int i;
+        try {
+            i = inputStream.read(bytes, 0, bufferLength);
+        } catch (IOException e) {
+            pool.release(bytes);
+            throw e;
+        }
+        if (i == -1) {
+            pool.release(bytes);
+            return null; // 数据结束
+        }
         return ByteChunk.of(bytes, 0, i);
     }
 
     public ByteChunk borrow0() throws IOException {
-        if (buffer == null) {
-            buffer = new byte[bufferLength];
+        var length = nextBufferLength();
+        // 缓冲区只增大不缩小 (复用的缓冲区 没有必要缩小)
+        if (buffer == null || buffer.length < length) {
+            buffer = new byte[length];
         }
-        int i = inputStream.read(buffer);
+        int i = inputStream.read(buffer, 0, length);
         if (i == -1) {
             return null; // 数据结束
         }
+        recordRead(i);
         return ByteChunk.of(buffer, 0, i);
     }
 
@@ -80,6 +142,14 @@ public final class InputStreamByteSupplier implements ByteSupplier {
         }
     }
 
+    @Override
+    public void release(ByteChunk byteChunk) {
+        // borrow 的缓冲区 不属于池
+        if (pool != null && byteChunk.bytes != buffer) {
+            pool.release(byteChunk.bytes);
+        }
+    }
+
     @Override
     public void close() throws ScxInputException {
         try {
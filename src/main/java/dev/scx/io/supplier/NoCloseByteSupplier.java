@@ -26,6 +26,11 @@ public final class NoCloseByteSupplier implements ByteSupplier {
         return byteSupplier.borrow();
     }
 
+    @Override
+    public void release(ByteChunk byteChunk) {
+        byteSupplier.release(byteChunk);
+    }
+
     @Override
     public void close() throws ScxInputException {
         // 什么都不做.
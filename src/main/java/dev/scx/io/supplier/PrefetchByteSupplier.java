@@ -0,0 +1,206 @@
+package dev.scx.io.supplier;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.ScxInputException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// PrefetchByteSupplier
+///
+/// 在后台线程中循环调用上游的 get(), 将数据块预先放入一个有界队列 (最多 capacity 个), 使上游的 I/O (或解压) 与下游的解析并行.
+///
+/// - 后台线程在第一次 get/borrow 时启动 (close 之后不再启动), 默认为虚拟线程.
+/// - 上游的数据块, EOF 以及异常 按顺序交给下游; 上游抛出的异常会在下游对应位置原样抛出, 之后的 get 会再次抛出同一异常.
+/// - close 会中断后台线程, 关闭上游 (使阻塞中的 I/O 尽快返回), 并等待后台线程退出 (最多 closeTimeout).
+///   注意 关闭上游时后台线程可能仍在上游的 get 中, 所以上游的 close 需要能与 get 并发调用 (如 Socket, FileChannel).
+///   若上游的 close 无法打断进行中的 get (如 管道, System.in, 或 end() 需要等待进行中解压的 Inflater),
+///   后台线程无法在 closeTimeout 内退出, 此时 close 抛出 ScxInputException (后台线程会在 get 返回后自行退出, 丢弃其结果).
+/// - 只使用上游的 get() (owned), 所以 borrow() 与 get() 相同.
+///
+/// @author scx567888
+public final class PrefetchByteSupplier implements ByteSupplier {
+
+    private static final Object EOF = new Object();
+
+    private static final Duration DEFAULT_CLOSE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final ByteSupplier byteSupplier;
+    private final ArrayBlockingQueue<Object> queue;
+    private final ThreadFactory threadFactory;
+    private final Duration closeTimeout;
+    /// 保护 后台线程的启动 与 close 读取后台线程, 两者必须互斥:
+    /// 否则 close 可能在线程已启动 但尚未赋值给 producer 时读到 null, 从而既不中断也不等待后台线程
+    private final ReentrantLock producerLock;
+    private Thread producer;
+    /// 已经取到的 EOF 或 Failure, 之后的 get 直接返回
+    private Object terminal;
+    private volatile boolean closed;
+
+    public PrefetchByteSupplier(ByteSupplier byteSupplier) {
+        this(byteSupplier, 4);
+    }
+
+    public PrefetchByteSupplier(ByteSupplier byteSupplier, int capacity) {
+        this(byteSupplier, capacity, Thread.ofVirtual().name("scx-io-prefetch").factory());
+    }
+
+    public PrefetchByteSupplier(ByteSupplier byteSupplier, int capacity, ThreadFactory threadFactory) {
+        this(byteSupplier, capacity, threadFactory, DEFAULT_CLOSE_TIMEOUT);
+    }
+
+    /// @param closeTimeout close 时等待后台线程退出的最长时间
+    public PrefetchByteSupplier(ByteSupplier byteSupplier, int capacity, ThreadFactory threadFactory, Duration closeTimeout) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+        }
+        if (closeTimeout.isNegative()) {
+            throw new IllegalArgumentException("closeTimeout must not be negative");
+        }
+        this.byteSupplier = byteSupplier;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.threadFactory = threadFactory;
+        this.closeTimeout = closeTimeout;
+        this.producerLock = new ReentrantLock();
+        this.producer = null;
+        this.terminal = null;
+        this.closed = false;
+    }
+
+    private void produce() {
+        try {
+            while (!closed) {
+                var byteChunk = byteSupplier.get();
+                if (closed) {
+                    // close 期间返回的数据 (close 可能已经不再等待本线程), 丢弃
+                    if (byteChunk != null) {
+                        byteSupplier.release(byteChunk);
+                    }
+                    return;
+                }
+                if (byteChunk == null) {
+                    queue.put(EOF);
+                    return;
+                }
+                if (byteChunk.length == 0) {
+                    continue;// 空块 没有必要放入队列
+                }
+                queue.put(byteChunk);
+            }
+        } catch (InterruptedException e) {
+            // 被 close 中断, 直接退出
+        } catch (Throwable e) {
+            if (closed) {
+                return; // close 导致的上游异常, 无需传递
+            }
+            try {
+                queue.put(new Failure(e));
+            } catch (InterruptedException ex) {
+                // 被 close 中断, 直接退出
+            }
+        }
+    }
+
+    @Override
+    public ByteChunk get() throws ScxInputException {
+        if (terminal == null) {
+            startProducer();
+            Object item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ScxInputException("Interrupted while waiting for prefetched data", e);
+            }
+            if (item instanceof ByteChunk byteChunk) {
+                return byteChunk;
+            }
+            terminal = item;
+        }
+        if (terminal instanceof Failure failure) {
+            // 按原样抛出上游的异常 (ScxInputException 也是 RuntimeException)
+            if (failure.cause() instanceof RuntimeException e) {
+                throw e;
+            }
+            if (failure.cause() instanceof Error e) {
+                throw e;
+            }
+            throw new ScxInputException(failure.cause());
+        }
+        return null; // EOF
+    }
+
+    private void startProducer() {
+        producerLock.lock();
+        try {
+            // 已经 close 时不再启动 (close 已向队列放入 EOF, 之后的 take 会直接返回)
+            if (producer == null && !closed) {
+                var thread = threadFactory.newThread(this::produce);
+                thread.start();
+                producer = thread;
+            }
+        } finally {
+            producerLock.unlock();
+        }
+    }
+
+    @Override
+    public void release(ByteChunk byteChunk) {
+        byteSupplier.release(byteChunk);
+    }
+
+    @Override
+    public void close() throws ScxInputException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        // 在锁中读取: 要么后台线程已经启动并赋值, 要么之后不会再启动
+        Thread thread;
+        producerLock.lock();
+        try {
+            thread = producer;
+        } finally {
+            producerLock.unlock();
+        }
+        if (thread != null) {
+            thread.interrupt();
+        }
+        var exited = true;
+        try {
+            byteSupplier.close();
+        } finally {
+            if (thread != null) {
+                exited = joinProducer(thread);
+            }
+            // 丢弃未消费的数据块, 并唤醒可能阻塞在 take 中的下游
+            queue.clear();
+            queue.offer(EOF);
+        }
+        if (!exited) {
+            throw new ScxInputException("Prefetch thread did not exit within " + closeTimeout + ", the upstream close may not interrupt a pending get");
+        }
+    }
+
+    /// @return 后台线程是否已经退出
+    private boolean joinProducer(Thread thread) {
+        try {
+            return thread.join(closeTimeout);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return !thread.isAlive();
+        }
+    }
+
+    public ByteSupplier byteSupplier() {
+        return byteSupplier;
+    }
+
+    /// 上游抛出的异常
+    private record Failure(Throwable cause) {
+
+    }
+
+}
@@ -0,0 +1,83 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.supplier.AdaptiveBufferLength;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+public class AdaptiveBufferLengthTest {
+
+    public static void main(String[] args) throws ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 读满时增大, 连续短读时缩小, 且不超出上下限
+    @Test
+    public static void test1() {
+        var adaptive = new AdaptiveBufferLength(64, 1024, 8192);
+        Assert.assertEquals(adaptive.nextLength(), 1024);
+        // 读满 增大 4 档 (1024 -> 16384, 受上限限制)
+        adaptive.record(1024);
+        Assert.assertEquals(adaptive.nextLength(), 8192);
+        adaptive.record(8192);
+        Assert.assertEquals(adaptive.nextLength(), 8192);
+        // 单次短读 不缩小
+        adaptive.record(10);
+        Assert.assertEquals(adaptive.nextLength(), 8192);
+        // 连续两次短读 缩小 1 档
+        adaptive.record(10);
+        Assert.assertEquals(adaptive.nextLength(), 4096);
+        for (int i = 0; i < 100; i = i + 1) {
+            adaptive.record(10);
+        }
+        Assert.assertEquals(adaptive.nextLength(), 64);
+    }
+
+    /// 测试 小消息连接上 InputStreamByteSupplier 分配的数组会逐渐缩小
+    @Test
+    public static void test2() throws ScxInputException {
+        var data = new byte[200 * 100];
+        for (int i = 0; i < data.length; i = i + 1) {
+            data[i] = (byte) i;
+        }
+        var supplier = new InputStreamByteSupplier(new SmallReadInputStream(new ByteArrayInputStream(data), 200), new AdaptiveBufferLength());
+        var first = supplier.get();
+        Assert.assertEquals(first.bytes.length, 8192);
+        var position = first.length;
+        var last = first;
+        for (var chunk = supplier.get(); chunk != null; chunk = supplier.get()) {
+            for (int i = 0; i < chunk.length; i = i + 1) {
+                Assert.assertEquals(chunk.get(i), data[position + i]);
+            }
+            position += chunk.length;
+            last = chunk;
+        }
+        Assert.assertEquals(position, data.length);
+        Assert.assertTrue(last.bytes.length <= 512);
+    }
+
+    /// 每次最多返回 maxRead 个字节 (模拟小消息的连接)
+    private static final class SmallReadInputStream extends FilterInputStream {
+
+        private final int maxRead;
+
+        private SmallReadInputStream(InputStream in, int maxRead) {
+            super(in);
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, maxRead));
+        }
+
+    }
+
+}
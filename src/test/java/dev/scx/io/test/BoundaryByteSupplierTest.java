@@ -26,6 +26,7 @@ public class BoundaryByteSupplierTest {
         testRepeatedBoundary();
         testEmptyStream();
         testOverlappingBoundary();
+        testLongBitMaskBoundary();
     }
 
     @Test
@@ -141,4 +142,22 @@ public class BoundaryByteSupplierTest {
         Assert.assertEquals(new String(remaining), "aaaab");
     }
 
+    /// 测试 长度超过 64 的 boundary (BitMaskByteIndexer 多字状态)
+    @Test
+    public static void testLongBitMaskBoundary() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        for (var boundaryLength : new int[]{65, 100, 128, 129, 200, 256, 300}) {
+            var boundary = "-".repeat(boundaryLength - 1) + "x";
+            var body = "-".repeat(boundaryLength + 10) + "body" + "-".repeat(boundaryLength - 1);
+            var str = body + boundary + "tail";
+            for (int i = 1; i < 300; i = i + 37) {
+                var rawReader = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+                var supplier = new BoundaryByteSupplier(rawReader, new BitMaskByteIndexer(boundary.getBytes(StandardCharsets.UTF_8)), false);
+                var result = new DefaultByteInput(supplier).readAll();
+                Assert.assertEquals(new String(result), body);
+                var remaining = rawReader.readAll();
+                Assert.assertEquals(new String(remaining), "tail");
+            }
+        }
+    }
+
 }
@@ -0,0 +1,168 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.SingleByteIndexer;
+import dev.scx.io.indexer.StatusByteMatchResult;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.pool.ByteArrayPool;
+import dev.scx.io.pool.StripedByteArrayPool;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+public class ByteArrayPoolTest {
+
+    public static void main(String[] args) throws InterruptedException, NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+        test3();
+    }
+
+    /// 测试 StripedByteArrayPool 的复用规则
+    @Test
+    public static void test1() throws InterruptedException {
+        var pool = new StripedByteArrayPool(16);
+        var bytes = pool.acquire(10);
+        Assert.assertEquals(bytes.length, 16);
+        pool.release(bytes);
+        Assert.assertSame(pool.acquire(16), bytes);
+        // 超过 arrayLength 直接分配, 长度不符的数组直接丢弃
+        Assert.assertEquals(pool.acquire(17).length, 17);
+        pool.release(new byte[8]);
+        Assert.assertEquals(pool.acquire(1).length, 16);
+        // 虚拟线程使用共享区, 其他线程也可以取到 (无论两个线程是否映射到同一条带)
+        var sharedPool = new StripedByteArrayPool(16, 8, 8, 1);
+        for (int i = 0; i < 32; i = i + 1) {
+            var shared = new byte[16];
+            Thread.ofVirtual().start(() -> sharedPool.release(shared)).join();
+            var acquired = new byte[1][];
+            Thread.ofVirtual().start(() -> acquired[0] = sharedPool.acquire(16)).join();
+            Assert.assertSame(acquired[0], shared);
+        }
+        // 不使用线程本地缓存时 平台线程同样跨条带复用
+        var platformPool = new StripedByteArrayPool(16, 0, 8, 1);
+        var released = new byte[8][];
+        for (int i = 0; i < 8; i = i + 1) {
+            var array = new byte[16];
+            released[i] = array;
+            Thread.ofPlatform().start(() -> platformPool.release(array)).join();
+        }
+        // 共享区已满 (8 个条带 * 1 个槽位), 再归还的数组直接丢弃
+        platformPool.release(new byte[16]);
+        var acquired = Collections.newSetFromMap(new IdentityHashMap<byte[], Boolean>());
+        for (int i = 0; i < 9; i = i + 1) {
+            acquired.add(platformPool.acquire(16));
+        }
+        for (var array : released) {
+            Assert.assertTrue(acquired.contains(array));
+        }
+    }
+
+    /// 测试 DefaultByteInput 归还不再使用的数据块, 但不归还交给过 retaining consumer 的数据块
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pool = new CountingPool(new StripedByteArrayPool(8));
+        var str = "aaa\r\nbbbbbbbbbb\r\ncccccccccccccccccccc\r\nlast";
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 8, pool));
+        Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "aaa");
+        Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "bbbbbbbbbb");
+        Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "cccccccccccccccccccc");
+        // readAll 使用 LazyByteArrayByteConsumer (会保留数据块)
+        Assert.assertEquals(new String(byteInput.readAll()), "last");
+        byteInput.close();
+        // 最后两个数据块 "ccccc\r\nl" 和 "ast" 交给了 readAll, 不能归还
+        Assert.assertEquals(pool.released, pool.acquired - 2);
+    }
+
+    /// 测试 DefaultByteInput 不归还交给过 retaining indexer 的数据块
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pool = new CountingPool(new StripedByteArrayPool(2));
+        var str = "abcdefghijklmnopqrstuvwxyz";
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 2, pool));
+        var indexer = new RetainingByteIndexer(new SingleByteIndexer((byte) 'd'));
+        Assert.assertEquals(byteInput.indexOf(indexer).index, 3L);
+        Assert.assertEquals(byteInput.indexCursor(indexer).indexOf(Long.MAX_VALUE).index, 3L);
+        // skip 不保留数据块, 读过的数据块会被归还 (并被破坏)
+        Assert.assertEquals(byteInput.skipFully(str.length()), str.length());
+        byteInput.close();
+        var sb = new StringBuilder();
+        for (var chunk : indexer.chunks) {
+            sb.append(new String(chunk.bytes, chunk.start, chunk.length));
+        }
+        Assert.assertEquals(sb.toString(), "abcdabcd");
+        // 前两个数据块 "ab" 和 "cd" 交给了 indexer, 不能归还
+        Assert.assertEquals(pool.released, pool.acquired - 2);
+    }
+
+    private static final class CountingPool implements ByteArrayPool {
+
+        private final ByteArrayPool pool;
+        private int acquired;
+        private int released;
+
+        private CountingPool(ByteArrayPool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public byte[] acquire(int minLength) {
+            acquired = acquired + 1;
+            return pool.acquire(minLength);
+        }
+
+        @Override
+        public void release(byte[] bytes) {
+            released = released + 1;
+            // 破坏内容, 如果之后仍被读取会导致结果错误
+            Arrays.fill(bytes, (byte) '?');
+            pool.release(bytes);
+        }
+
+    }
+
+    /// 保存每次查找的数据块视图
+    private static final class RetainingByteIndexer implements ByteIndexer {
+
+        private final ByteIndexer indexer;
+        private final List<ByteChunk> chunks;
+
+        private RetainingByteIndexer(ByteIndexer indexer) {
+            this.indexer = indexer;
+            this.chunks = new ArrayList<>();
+        }
+
+        @Override
+        public StatusByteMatchResult indexOf(ByteChunk chunk) {
+            var result = indexer.indexOf(chunk);
+            // 只保存实际扫描过的部分
+            chunks.add(result.status == StatusByteMatchResult.Status.FULL_MATCH ? chunk.subChunk(0, result.index + result.matchedLength) : chunk);
+            return result;
+        }
+
+        @Override
+        public boolean isEmptyPattern() {
+            return indexer.isEmptyPattern();
+        }
+
+        @Override
+        public void reset() {
+            indexer.reset();
+        }
+
+    }
+
+}
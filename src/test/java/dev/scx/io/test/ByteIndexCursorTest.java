@@ -0,0 +1,113 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.indexer.StatusByteMatchResult;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ByteIndexCursorTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 多次以递增的 maxLength 重试, 每个字节只被扫描一次
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "Host: scx.dev\r\nAccept: */*\r\n\r\nbody";
+        for (int i = 1; i < 10; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new CountingByteIndexer(new KMPByteIndexer("\r\n\r\n".getBytes()));
+            var cursor = byteInput.indexCursor(indexer);
+
+            var maxLength = 1L;
+            while (true) {
+                try {
+                    var result = cursor.indexOf(maxLength);
+                    Assert.assertEquals(result.index, 26L);
+                    Assert.assertEquals(result.matchedLength, 4);
+                    break;
+                } catch (NoMatchFoundException e) {
+                    maxLength = maxLength + 1;
+                }
+            }
+            Assert.assertEquals(indexer.scannedBytes, 30L);
+
+            // 匹配成功后 从新的读取位置重新开始
+            byteInput.skipFully(30);
+            Assert.assertThrows(NoMatchFoundException.class, () -> cursor.indexOf(Long.MAX_VALUE));
+            Assert.assertEquals(new String(byteInput.readAll()), "body");
+        }
+    }
+
+    /// 测试 读取位置发生变化后重新开始
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "ab--cd--ef";
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 3));
+        var indexer = new CountingByteIndexer(new KMPByteIndexer("--".getBytes()));
+        var cursor = byteInput.indexCursor(indexer);
+        Assert.assertThrows(NoMatchFoundException.class, () -> cursor.indexOf(3));
+        // 读取了数据, 已保存的进度失效
+        byteInput.skipFully(4);
+        Assert.assertThrows(NoMatchFoundException.class, () -> cursor.indexOf(3));
+        Assert.assertEquals(indexer.scannedBytes, 6L);
+        // 回到相同的读取位置, 进度仍然有效
+        var mark = byteInput.mark();
+        byteInput.skipFully(2);
+        mark.reset();
+        Assert.assertEquals(cursor.indexOf(4).index, 2L);
+        Assert.assertEquals(indexer.scannedBytes, 7L);
+    }
+
+    private static final class CountingByteIndexer implements ByteIndexer {
+
+        private final ByteIndexer indexer;
+        private long scannedBytes;
+
+        private CountingByteIndexer(ByteIndexer indexer) {
+            this.indexer = indexer;
+        }
+
+        @Override
+        public StatusByteMatchResult indexOf(ByteChunk chunk) {
+            return StatusByteMatchResult.unpack(indexOfPacked(chunk, 0, chunk.length));
+        }
+
+        @Override
+        public long indexOfPacked(ByteChunk chunk, int start, int end) {
+            var packedResult = indexer.indexOfPacked(chunk, start, end);
+            // 匹配成功时只扫描到匹配的末尾
+            if (StatusByteMatchResult.isFullMatch(packedResult)) {
+                scannedBytes += StatusByteMatchResult.unpackIndex(packedResult) + StatusByteMatchResult.unpackMatchedLength(packedResult);
+            } else {
+                scannedBytes += end - start;
+            }
+            return packedResult;
+        }
+
+        @Override
+        public boolean isEmptyPattern() {
+            return indexer.isEmptyPattern();
+        }
+
+        @Override
+        public void reset() {
+            indexer.reset();
+        }
+
+    }
+
+}
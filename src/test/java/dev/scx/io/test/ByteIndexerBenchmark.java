@@ -0,0 +1,105 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.indexer.*;
+
+import java.util.Random;
+import java.util.function.Function;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.Status.FULL_MATCH;
+
+/// 对比各 ByteIndexer 在不同模式串长度和数据分布下的吞吐量 (MB/s), 用于确定 [ByteIndexerFactory] 的选择策略.
+///
+/// 仅通过 main 方法手动运行, 不参与单元测试.
+public class ByteIndexerBenchmark {
+
+    private static final int DATA_LENGTH = 32 * 1024 * 1024;
+
+    private static final int CHUNK_LENGTH = 8192;
+
+    public static void main(String[] args) {
+        var random = new Random(42);
+
+        // 1, 字节分散的数据 (类似文本 / 二进制上传内容)
+        var textData = new byte[DATA_LENGTH];
+        for (int i = 0; i < textData.length; i = i + 1) {
+            textData[i] = (byte) ('a' + random.nextInt(26));
+        }
+
+        // 2, 大量重复字节的数据 (类似 boundary 分隔线附近的内容)
+        var dashData = new byte[DATA_LENGTH];
+        for (int i = 0; i < dashData.length; i = i + 1) {
+            dashData[i] = random.nextInt(16) == 0 ? (byte) 'a' : (byte) '-';
+        }
+
+        // 3, 单一字节的数据 (Horspool 的最坏情况: 每个窗口都需要从尾部比较到模式串开头)
+        var sameData = new byte[DATA_LENGTH];
+        for (int i = 0; i < sameData.length; i = i + 1) {
+            sameData[i] = 'a';
+        }
+
+        System.out.printf("%-10s %-6s %10s %10s %10s %10s %10s %10s %10s %10s%n", "data", "length", "Single", "KMP", "KMP-DFA", "BitMask", "Horspool", "Factory", "KMP-Pre", "BitMask-Pre");
+
+        for (var length : new int[]{1, 2, 4, 8, 16, 32, 64, 70, 128, 256}) {
+            // 模式串取自 "a-z" 中的随机字节, 保证不会出现在数据中的匹配之前
+            var textPattern = new byte[length];
+            for (int i = 0; i < length; i = i + 1) {
+                textPattern[i] = (byte) ('A' + random.nextInt(26));
+            }
+            run("text", textData, textPattern);
+
+            var dashPattern = new byte[length];
+            for (int i = 0; i < length; i = i + 1) {
+                dashPattern[i] = '-';
+            }
+            dashPattern[length - 1] = 'Z';
+            run("dash", dashData, dashPattern);
+
+            var samePattern = new byte[length];
+            for (int i = 0; i < length; i = i + 1) {
+                samePattern[i] = 'a';
+            }
+            samePattern[0] = 'b';
+            run("same", sameData, samePattern);
+        }
+    }
+
+    private static void run(String name, byte[] data, byte[] pattern) {
+        var single = pattern.length == 1 ? measure(data, p -> new SingleByteIndexer(p[0]), pattern) : Double.NaN;
+        var kmp = measure(data, KMPByteIndexer::new, pattern);
+        var kmpDFA = measure(data, p -> new KMPByteIndexer(p, true), pattern);
+        var bitMask = measure(data, BitMaskByteIndexer::new, pattern);
+        var horspool = measure(data, HorspoolByteIndexer::new, pattern);
+        var factory = measure(data, ByteIndexerFactory::createByteIndexer, pattern);
+        var kmpPrefilter = measure(data, p -> new KMPByteIndexer(p, true, false, true), pattern);
+        var bitMaskPrefilter = measure(data, p -> new BitMaskByteIndexer(p, false, true), pattern);
+
+        System.out.printf("%-10s %-6d %10.0f %10.0f %10.0f %10.0f %10.0f %10.0f %10.0f %10.0f%n", name, pattern.length, single, kmp, kmpDFA, bitMask, horspool, factory, kmpPrefilter, bitMaskPrefilter);
+    }
+
+    private static double measure(byte[] data, Function<byte[], ByteIndexer> indexerFactory, byte[] pattern) {
+        // 预热
+        for (int i = 0; i < 3; i = i + 1) {
+            scan(data, indexerFactory.apply(pattern));
+        }
+        var best = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i = i + 1) {
+            var start = System.nanoTime();
+            scan(data, indexerFactory.apply(pattern));
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return data.length / (best / 1_000_000_000.0) / (1024 * 1024);
+    }
+
+    private static int scan(byte[] data, ByteIndexer indexer) {
+        var matches = 0;
+        for (int start = 0; start < data.length; start = start + CHUNK_LENGTH) {
+            var result = indexer.indexOf(ByteChunk.of(data, start, Math.min(start + CHUNK_LENGTH, data.length)));
+            if (result.status == FULL_MATCH) {
+                matches = matches + 1;
+            }
+        }
+        return matches;
+    }
+
+}
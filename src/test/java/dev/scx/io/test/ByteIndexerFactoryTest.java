@@ -0,0 +1,57 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.BitMaskBytePattern;
+import dev.scx.io.indexer.ByteIndexerFactory;
+import dev.scx.io.indexer.HorspoolBytePattern;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ByteIndexerFactoryTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 按长度和字节分布选择的实现
+    @Test
+    public static void test1() {
+        // 短模式串
+        Assert.assertTrue(ByteIndexerFactory.compile("\r\n\r\n".getBytes(StandardCharsets.UTF_8)) instanceof BitMaskBytePattern);
+        // 字节分散
+        Assert.assertTrue(ByteIndexerFactory.compile("\r\n--boundary".getBytes(StandardCharsets.UTF_8)) instanceof HorspoolBytePattern);
+        // 大量重复字节
+        Assert.assertTrue(ByteIndexerFactory.compile(("\r\n" + "-".repeat(30) + "x").getBytes(StandardCharsets.UTF_8)) instanceof BitMaskBytePattern);
+        // 长且尾部不具有周期性
+        Assert.assertTrue(ByteIndexerFactory.compile(("-".repeat(100) + "boundary").getBytes(StandardCharsets.UTF_8)) instanceof HorspoolBytePattern);
+        // 尾部具有周期性, 即使很长
+        Assert.assertTrue(ByteIndexerFactory.compile(("b" + "a".repeat(100)).getBytes(StandardCharsets.UTF_8)) instanceof BitMaskBytePattern);
+        Assert.assertTrue(ByteIndexerFactory.compile("ab".repeat(50).getBytes(StandardCharsets.UTF_8)) instanceof BitMaskBytePattern);
+    }
+
+    /// 测试 前缀字节分散 但尾部具有周期性时 不选择 Horspool (平均跳跃距离很大, 但在重复数据上会严重退化)
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var prefix = new StringBuilder();
+        for (int i = 0; i < 32; i = i + 1) {
+            prefix.append((char) ('A' + i));
+        }
+        var pattern = (prefix + "a".repeat(32)).getBytes(StandardCharsets.UTF_8);
+        var compiled = ByteIndexerFactory.compile(pattern);
+        Assert.assertTrue(compiled instanceof BitMaskBytePattern);
+        var str = "a".repeat(1000) + new String(pattern, StandardCharsets.UTF_8) + "end";
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 100));
+        Assert.assertEquals(byteInput.readUntil(compiled).length, 1000);
+        Assert.assertEquals(new String(byteInput.readAll()), "end");
+    }
+
+}
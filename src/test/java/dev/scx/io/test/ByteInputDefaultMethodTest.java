@@ -0,0 +1,149 @@
+package dev.scx.io.test;
+
+import dev.scx.exception.ScxWrappedException;
+import dev.scx.io.ByteInput;
+import dev.scx.io.ByteInputMark;
+import dev.scx.io.ByteMatchResult;
+import dev.scx.io.MutableByteMatchResult;
+import dev.scx.io.consumer.ByteConsumer;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.indexer.LineBreakByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+/// 测试 只实现抽象方法的外部 ByteInput 实现 (新增的方法均有默认实现)
+public class ByteInputDefaultMethodTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+        test3();
+    }
+
+    /// 测试 indexOf(ByteIndexer, long, MutableByteMatchResult) 的默认实现
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var byteInput = new DelegatingByteInput(new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream("a\r\nbb\r\nccc".getBytes(StandardCharsets.UTF_8)), 2)));
+        var result = new MutableByteMatchResult();
+        byteInput.indexOf(new LineBreakByteIndexer(), Long.MAX_VALUE, result);
+        Assert.assertEquals(result.index, 1L);
+        Assert.assertEquals(result.matchedLength, 2);
+        Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "a");
+        Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "bb");
+        Assert.assertThrows(NoMatchFoundException.class, () -> byteInput.readUntil("\r\n".getBytes()));
+        Assert.assertEquals(new String(byteInput.readAll()), "ccc");
+    }
+
+    /// 测试 indexCursor 的默认实现 (不保存进度, 但结果与内置实现相同)
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var byteInput = new DelegatingByteInput(new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream("Host: scx.dev\r\n\r\nbody".getBytes(StandardCharsets.UTF_8)), 3)));
+        var cursor = byteInput.indexCursor(new KMPByteIndexer("\r\n\r\n".getBytes()));
+        var maxLength = 1L;
+        while (true) {
+            try {
+                var result = cursor.indexOf(maxLength);
+                Assert.assertEquals(result.index, 13L);
+                Assert.assertEquals(result.matchedLength, 4);
+                break;
+            } catch (NoMatchFoundException e) {
+                maxLength = maxLength + 1;
+            }
+        }
+        Assert.assertEquals(maxLength, 17L);
+    }
+
+    /// 测试 mark(long) 的默认实现 (忽略 readLimit)
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var byteInput = new DelegatingByteInput(new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream("0123456789".getBytes(StandardCharsets.UTF_8)), 3)));
+        var mark = byteInput.mark(2);
+        Assert.assertEquals(new String(byteInput.readFully(5)), "01234");
+        mark.reset();
+        Assert.assertEquals(new String(byteInput.readAll()), "0123456789");
+        mark.release();
+        Assert.assertThrows(IllegalArgumentException.class, () -> byteInput.mark(-1));
+    }
+
+    /// 只实现 ByteInput 的抽象方法
+    private static final class DelegatingByteInput implements ByteInput {
+
+        private final ByteInput byteInput;
+
+        private DelegatingByteInput(ByteInput byteInput) {
+            this.byteInput = byteInput;
+        }
+
+        @Override
+        public byte read() throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+            return byteInput.read();
+        }
+
+        @Override
+        public void read(ByteConsumer byteConsumer, long maxLength) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+            byteInput.read(byteConsumer, maxLength);
+        }
+
+        @Override
+        public void readUpTo(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+            byteInput.readUpTo(byteConsumer, length);
+        }
+
+        @Override
+        public void readFully(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+            byteInput.readFully(byteConsumer, length);
+        }
+
+        @Override
+        public byte peek() throws NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+            return byteInput.peek();
+        }
+
+        @Override
+        public void peek(ByteConsumer byteConsumer, long maxLength) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+            byteInput.peek(byteConsumer, maxLength);
+        }
+
+        @Override
+        public void peekUpTo(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+            byteInput.peekUpTo(byteConsumer, length);
+        }
+
+        @Override
+        public void peekFully(ByteConsumer byteConsumer, long length) throws NoMoreDataException, ScxInputException, InputAlreadyClosedException, ScxWrappedException {
+            byteInput.peekFully(byteConsumer, length);
+        }
+
+        @Override
+        public ByteMatchResult indexOf(ByteIndexer indexer, long maxLength) throws NoMatchFoundException, NoMoreDataException, ScxInputException, InputAlreadyClosedException {
+            return byteInput.indexOf(indexer, maxLength);
+        }
+
+        @Override
+        public ByteInputMark mark() throws InputAlreadyClosedException {
+            return byteInput.mark();
+        }
+
+        @Override
+        public boolean isClosed() {
+            return byteInput.isClosed();
+        }
+
+        @Override
+        public void close() throws ScxInputException {
+            byteInput.close();
+        }
+
+    }
+
+}
@@ -0,0 +1,80 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.BitMaskBytePattern;
+import dev.scx.io.indexer.ByteIndexerFactory;
+import dev.scx.io.indexer.BytePattern;
+import dev.scx.io.indexer.HorspoolBytePattern;
+import dev.scx.io.indexer.KMPBytePattern;
+import dev.scx.io.indexer.MultiBytePattern;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+public class BytePatternTest {
+
+    public static void main(String[] args) throws Exception {
+        test1();
+        test2();
+    }
+
+    /// 测试 同一个 BytePattern 在多个线程中并发使用
+    @Test
+    public static void test1() throws Exception {
+        var pattern = "--boundary".getBytes(StandardCharsets.UTF_8);
+        var patterns = List.<BytePattern>of(
+            new KMPBytePattern(pattern),
+            new KMPBytePattern(pattern, true, false),
+            new BitMaskBytePattern(pattern),
+            new HorspoolBytePattern(pattern),
+            new MultiBytePattern(pattern, "--end".getBytes(StandardCharsets.UTF_8)),
+            ByteIndexerFactory.compile(pattern)
+        );
+        var str = "aaa--boundarybbb--bound--boundaryccc--boundary";
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            for (var p : patterns) {
+                var tasks = new ArrayList<Callable<Void>>();
+                for (int i = 1; i < 50; i = i + 1) {
+                    var bufferLength = i;
+                    tasks.add(() -> {
+                        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), bufferLength));
+                        Assert.assertEquals(new String(byteInput.readUntil(p)), "aaa");
+                        Assert.assertEquals(new String(byteInput.readUntil(p)), "bbb--bound");
+                        Assert.assertEquals(new String(byteInput.peekUntil(p)), "ccc");
+                        Assert.assertEquals(byteInput.indexOf(p).index, 3);
+                        return null;
+                    });
+                }
+                for (var future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        }
+    }
+
+    /// 测试 编译后修改原数组不会影响 BytePattern, 以及 单字节模式串
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pattern = "\r\n".getBytes(StandardCharsets.UTF_8);
+        var compiled = ByteIndexerFactory.compile(pattern);
+        pattern[0] = 'x';
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream("x\nab\r\nc;d".getBytes(StandardCharsets.UTF_8))));
+        Assert.assertEquals(new String(byteInput.readUntil(compiled)), "x\nab");
+        var single = ByteIndexerFactory.compile(new byte[]{';'});
+        // 单字节匹配器没有状态, 可以直接共享
+        Assert.assertSame(single.newIndexer(), single.newIndexer());
+        Assert.assertEquals(new String(byteInput.readUntil(single)), "c");
+    }
+
+}
@@ -0,0 +1,70 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteSetIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class ByteSetIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 CSV 分词 (SWAR 路径)
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "name,\"age\",city\r\nTom,18,New York\n";
+        for (int i = 1; i < 40; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new ByteSetIndexer((byte) ',', (byte) '"', (byte) '\r', (byte) '\n');
+
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "name");
+            Assert.assertEquals(indexer.matchedByte(), ',');
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "");
+            Assert.assertEquals(indexer.matchedByte(), '"');
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "age");
+            Assert.assertEquals(indexer.matchedByte(), '"');
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "");
+            Assert.assertEquals(indexer.matchedByte(), ',');
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "city");
+            Assert.assertEquals(indexer.matchedByte(), '\r');
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "");
+            Assert.assertEquals(indexer.matchedByte(), '\n');
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "Tom");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "18");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "New York");
+            Assert.assertEquals(indexer.matchedByte(), '\n');
+        }
+    }
+
+    /// 测试 较大的集合 (查表路径) 以及 非 ASCII 字节
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var bytes = new byte[]{'a', 'b', 'c', 'd', 'e', 'f', 'g', (byte) 0x80, (byte) 0xFF, 'h', 'i'};
+        var indexer = new ByteSetIndexer((byte) 0xFF, (byte) 'i', (byte) 'x', (byte) 'y', (byte) 'z', (byte) 0x80);
+        Assert.assertTrue(indexer.contains((byte) 0xFF));
+        Assert.assertFalse(indexer.contains((byte) 'a'));
+        for (int i = 1; i < 12; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(bytes), i));
+            Assert.assertEquals(byteInput.indexOf(indexer).index, 7);
+            Assert.assertEquals(indexer.matchedByte(), 0x80);
+            byteInput.skipFully(8);
+            Assert.assertEquals(byteInput.indexOf(indexer).index, 0);
+            Assert.assertEquals(indexer.matchedByte(), 0xFF);
+            byteInput.skipFully(1);
+            Assert.assertEquals(byteInput.indexOf(indexer).index, 1);
+            Assert.assertEquals(indexer.matchedByte(), 'i');
+        }
+    }
+
+}
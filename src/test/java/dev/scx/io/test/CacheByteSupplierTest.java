@@ -4,13 +4,20 @@ import dev.scx.io.ScxIO;
 import dev.scx.io.exception.InputAlreadyClosedException;
 import dev.scx.io.exception.ScxInputException;
 import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.CacheByteSupplier;
+import dev.scx.io.supplier.InputStreamByteSupplier;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.util.Set;
+
 public class CacheByteSupplierTest {
 
     public static void main(String[] args) throws InputAlreadyClosedException, ScxInputException {
         test1();
+        test2();
     }
 
     @Test
@@ -36,4 +43,49 @@ public class CacheByteSupplierTest {
 
     }
 
+    /// 测试 超过 memoryLimit 的部分溢出到临时文件, close 时删除临时文件
+    @Test
+    public static void test2() throws InputAlreadyClosedException, ScxInputException {
+        var before = spillFiles();
+        var rawInput = ScxIO.createByteInput(new InputStreamByteSupplier(new ByteArrayInputStream("123456789abc".getBytes()), 3));
+        var cacheByteSupplier = ScxIO.cacheByteSupplier(rawInput, 5);
+
+        // 只读取一部分 就从头回放 (ByteInput 的 close 不传递给 cacheByteSupplier, 之后可以继续读取)
+        var cacheInput1 = new DefaultByteInput(ScxIO.noClose(cacheByteSupplier));
+        Assert.assertEquals(new String(cacheInput1.readFully(8)), "12345678");
+        cacheInput1.close();
+        // "123" 在内存中, "456" 开始溢出
+        Assert.assertEquals(cacheByteSupplier.spilledLength(), 6);
+        Assert.assertEquals(spillFiles().size(), before.size() + 1);
+
+        cacheByteSupplier.reset();
+
+        var cacheInput2 = new DefaultByteInput(ScxIO.noClose(cacheByteSupplier));
+        Assert.assertEquals(new String(cacheInput2.readAll()), "123456789abc");
+        cacheInput2.close();
+        Assert.assertEquals(cacheByteSupplier.spilledLength(), 9);
+
+        cacheByteSupplier.reset();
+
+        var cacheInput3 = new DefaultByteInput(ScxIO.noClose(cacheByteSupplier));
+        Assert.assertEquals(new String(cacheInput3.readAll()), "123456789abc");
+        cacheInput3.close();
+
+        // close 关闭上游 并删除临时文件
+        cacheByteSupplier.close();
+        Assert.assertEquals(rawInput.isClosed(), true);
+        Assert.assertEquals(spillFiles(), before);
+
+        // 临时文件已删除, 不能再回放溢出的部分
+        cacheByteSupplier.reset();
+        var cacheInput4 = new DefaultByteInput(cacheByteSupplier);
+        Assert.assertThrows(ScxInputException.class, cacheInput4::readAll);
+    }
+
+    /// 临时目录中 CacheByteSupplier 的临时文件
+    private static Set<String> spillFiles() {
+        var names = new File(System.getProperty("java.io.tmpdir")).list((dir, name) -> name.startsWith("scx-io-cache"));
+        return names != null ? Set.of(names) : Set.of();
+    }
+
 }
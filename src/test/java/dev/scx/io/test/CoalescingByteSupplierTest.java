@@ -0,0 +1,105 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.ByteArrayByteSupplier;
+import dev.scx.io.supplier.CoalescingByteSupplier;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.List;
+
+public class CoalescingByteSupplierTest {
+
+    public static void main(String[] args) throws ScxInputException, NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    /// 测试 小数据块合并, 以及 大数据块直接透传
+    @Test
+    public static void test1() throws ScxInputException {
+        var large = "0123456789".getBytes(StandardCharsets.UTF_8);
+        var supplier = new CoalescingByteSupplier(new ByteArrayByteSupplier(
+            "ab".getBytes(), "cd".getBytes(), "ef".getBytes(), new byte[0], "gh".getBytes(), "ij".getBytes(), large, "k".getBytes()
+        ), 6);
+        Assert.assertEquals(supplier.get().toString(), "abcdef");
+        // 剩余空间放不下 "0123456789", 先交出已合并的 "ghij"
+        Assert.assertEquals(supplier.get().toString(), "ghij");
+        var chunk = supplier.get();
+        Assert.assertSame(chunk.bytes, large);
+        Assert.assertEquals(supplier.get().toString(), "k");
+        Assert.assertNull(supplier.get());
+        Assert.assertNull(supplier.borrow());
+    }
+
+    /// 测试 maxLatency 为 0 时 每个数据块立即交出
+    @Test
+    public static void test2() throws ScxInputException {
+        var supplier = new CoalescingByteSupplier(new ByteArrayByteSupplier("ab".getBytes(), "cd".getBytes()), 8192, Duration.ZERO);
+        Assert.assertEquals(supplier.borrow().toString(), "ab");
+        Assert.assertEquals(supplier.borrow().toString(), "cd");
+        Assert.assertNull(supplier.borrow());
+    }
+
+    /// 测试 配合 DefaultByteInput 使用
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var parts = new byte[1000][];
+        for (int i = 0; i < parts.length; i = i + 1) {
+            parts[i] = (i % 10 == 9 ? "\n" : String.valueOf(i % 10)).getBytes(StandardCharsets.UTF_8);
+        }
+        var byteInput = new DefaultByteInput(new CoalescingByteSupplier(new ByteArrayByteSupplier(parts), 64));
+        for (int i = 0; i < 100; i = i + 1) {
+            Assert.assertEquals(new String(byteInput.readUntil("\n".getBytes())), "012345678");
+        }
+        Assert.assertEquals(byteInput.readAll().length, 0);
+    }
+
+    /// 测试 上游读取没有读满缓冲区时 (如 交互连接上的一条短消息) 立即交出, 不会再次拉取而阻塞
+    @Test
+    public static void test4() throws ScxInputException {
+        // 每次读取只返回一条消息, 消息用完后再次读取 视为阻塞
+        var messages = new ArrayDeque<>(List.of("12345678", "ab", "12345678", "12345678", "cd"));
+        var inputStream = new InputStream() {
+
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) {
+                var message = messages.poll();
+                if (message == null) {
+                    throw new IllegalStateException("blocked");
+                }
+                var bytes = message.getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(bytes, 0, b, off, bytes.length);
+                return bytes.length;
+            }
+
+        };
+        var supplier = new CoalescingByteSupplier(new InputStreamByteSupplier(inputStream, 8), 8192);
+        // 读满的数据块继续合并, 读不满的数据块 表示暂时没有更多数据
+        Assert.assertEquals(supplier.get().toString(), "12345678ab");
+        Assert.assertEquals(supplier.borrow().toString(), "1234567812345678cd");
+        Assert.assertThrows(IllegalStateException.class, supplier::get);
+        // 缓冲区为空时 读不满的数据块直接透传
+        messages.add("ef");
+        var chunk = supplier.get();
+        Assert.assertEquals(chunk.toString(), "ef");
+        Assert.assertEquals(chunk.bytes.length, 8);
+    }
+
+}
@@ -0,0 +1,122 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.file.FileRecordIndex;
+import dev.scx.io.indexer.LineBreakByteIndexer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+public class FileRecordIndexTest {
+
+    public static void main(String[] args) throws IOException, InputAlreadyClosedException, ScxInputException {
+        test1();
+        test2();
+        test3();
+    }
+
+    @Test
+    public static void test1() throws IOException, ScxInputException, InputAlreadyClosedException {
+        var dataFile = File.createTempFile("test1", ".log");
+        var indexFile = File.createTempFile("test1", ".idx");
+        dataFile.deleteOnExit(); // JVM 退出时删除
+        indexFile.deleteOnExit();
+        // 空文件视为新索引
+        indexFile.delete();
+
+        var sb = new StringBuilder();
+        for (int i = 0; i < 1000; i = i + 1) {
+            sb.append("line").append(i).append(i % 2 == 0 ? "\n" : "\r\n");
+        }
+        append(dataFile, sb.toString());
+
+        var index = new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 7);
+        Assert.assertEquals(index.update(), 1000L);
+        Assert.assertEquals(index.recordCount(), 1000L);
+
+        try (var byteInput = index.openRecords(500)) {
+            Assert.assertEquals(new String(byteInput.readUntil(new LineBreakByteIndexer())), "line500");
+        }
+        try (var byteInput = index.openRecords(998, 2)) {
+            Assert.assertEquals(new String(byteInput.readAll()), "line998\nline999\r\n");
+        }
+        Assert.assertEquals(index.recordOffset(1000), dataFile.length());
+
+        // 重新加载
+        var reloaded = new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 7);
+        Assert.assertEquals(reloaded.recordCount(), 1000L);
+        for (int i = 0; i <= 1000; i = i + 1) {
+            Assert.assertEquals(reloaded.recordOffset(i), index.recordOffset(i));
+        }
+        Assert.assertThrows(IllegalArgumentException.class, () -> new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 8));
+    }
+
+    /// 测试 增量更新, 包括 被拆分到两次追加中的 \r\n
+    @Test
+    public static void test2() throws IOException, ScxInputException, InputAlreadyClosedException {
+        var dataFile = File.createTempFile("test2", ".log");
+        var indexFile = File.createTempFile("test2", ".idx");
+        dataFile.deleteOnExit(); // JVM 退出时删除
+        indexFile.deleteOnExit();
+
+        var index = new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2);
+        Assert.assertEquals(index.update(), 0L);
+
+        append(dataFile, "a\nbb\r");
+        Assert.assertEquals(index.update(), 1L);
+
+        append(dataFile, "\nccc");
+        Assert.assertEquals(index.update(), 1L);
+
+        append(dataFile, "c\ndddd\n");
+        Assert.assertEquals(new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2).update(), 2L);
+
+        var reloaded = new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2);
+        Assert.assertEquals(reloaded.recordCount(), 4L);
+        Assert.assertEquals(reloaded.recordOffset(1), 2L);
+        Assert.assertEquals(reloaded.recordOffset(2), 6L);
+        Assert.assertEquals(reloaded.recordOffset(3), 11L);
+        try (var byteInput = reloaded.openRecords(1, 2)) {
+            Assert.assertEquals(new String(byteInput.readAll()), "bb\r\ncccc\n");
+        }
+    }
+
+    /// 测试 更新中途崩溃留下的临时文件不影响已有的索引, 以及 索引文件末尾的多余数据被视为损坏
+    @Test
+    public static void test3() throws IOException, ScxInputException {
+        var dataFile = File.createTempFile("test3", ".log");
+        var indexFile = File.createTempFile("test3", ".idx");
+        var tempFile = new File(indexFile.getPath() + ".tmp");
+        dataFile.deleteOnExit(); // JVM 退出时删除
+        indexFile.deleteOnExit();
+        tempFile.deleteOnExit();
+
+        append(dataFile, "a\nb\nc\n");
+        var index = new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2);
+        Assert.assertEquals(index.update(), 3L);
+
+        // 模拟写入临时文件时崩溃
+        append(tempFile, "broken");
+        append(dataFile, "d\n");
+        Assert.assertEquals(new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2).recordCount(), 3L);
+        Assert.assertEquals(index.update(), 1L);
+        Assert.assertFalse(tempFile.exists());
+        var reloaded = new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2);
+        Assert.assertEquals(reloaded.recordCount(), 4L);
+        Assert.assertEquals(reloaded.recordOffset(3), 6L);
+
+        append(indexFile, "x");
+        Assert.assertThrows(ScxInputException.class, () -> new FileRecordIndex(dataFile, indexFile, LineBreakByteIndexer::new, 2));
+    }
+
+    private static void append(File file, String str) throws IOException {
+        try (var out = new FileOutputStream(file, true)) {
+            out.write(str.getBytes());
+        }
+    }
+
+}
@@ -0,0 +1,55 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.indexer.LineBreakByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class FindAllTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var str = "123\r\n456\n\r\n789\r\nabc";
+        for (int i = 1; i < 30; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var offsets = new ArrayList<Long>();
+            var count = byteInput.findAll(new LineBreakByteIndexer(), offsets::add);
+            Assert.assertEquals(count, 4L);
+            Assert.assertEquals(offsets, List.of(3L, 8L, 9L, 14L));
+            // 数据已全部消费
+            Assert.assertEquals(byteInput.readAll().length, 0);
+        }
+    }
+
+    /// 测试 偏移量相对于调用时的读取位置, 以及 匹配互不重叠
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var str = "xxaaaaaaa--aaa";
+        for (int i = 1; i < 20; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            byteInput.skipFully(2);
+            var offsets = new ArrayList<Long>();
+            byteInput.findAll(new KMPByteIndexer("aa".getBytes()), offsets::add);
+            Assert.assertEquals(offsets, List.of(0L, 2L, 4L, 9L));
+            Assert.assertEquals(byteInput.count(new KMPByteIndexer("aa".getBytes())), 0L);
+        }
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 3));
+        Assert.assertEquals(byteInput.count(new KMPByteIndexer("a".getBytes())), 10L);
+    }
+
+}
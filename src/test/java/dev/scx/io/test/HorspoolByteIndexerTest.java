@@ -0,0 +1,65 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.HorspoolByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.BoundaryByteSupplier;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class HorspoolByteIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+        test3();
+    }
+
+    /// 测试 长 boundary 跨多个 chunk
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var boundary = "\r\n------WebKitFormBoundary7MA4YWxkTrZu0gW";
+        var body = "Content-Disposition: form-data; name=\"file\"\r\n\r\n" + "----WebKitFormBoundary7MA4".repeat(10);
+        var str = body + boundary + "--\r\n";
+        for (int i = 1; i < 200; i = i + 1) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new HorspoolByteIndexer(boundary.getBytes(StandardCharsets.UTF_8));
+            var bytes = rawByteInput.readUntil(indexer);
+            Assert.assertEquals(new String(bytes), body);
+            Assert.assertEquals(new String(rawByteInput.readAll()), "--\r\n");
+        }
+    }
+
+    /// 测试 重复前缀的模式串 (部分匹配需要回退)
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "aaaaaaab" + "aaaab" + "aaab";
+        for (int i = 1; i < 20; i = i + 1) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new HorspoolByteIndexer("aaaab".getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), "aaa");
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), "");
+            Assert.assertThrows(NoMatchFoundException.class, () -> rawByteInput.readUntil(indexer));
+        }
+    }
+
+    /// 测试 配合 BoundaryByteSupplier 使用
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var str = "1234567890888866661111aaaabhellhellhellhhhhheeeeelllbbcccdddeeefffggghhhiiihelloend enden f";
+        for (int i = 1; i < 100; i = i + 1) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var newByteInput = new DefaultByteInput(new BoundaryByteSupplier(rawByteInput, new HorspoolByteIndexer("hello".getBytes(StandardCharsets.UTF_8)), true));
+            Assert.assertEquals(new String(newByteInput.readAll()), "1234567890888866661111aaaabhellhellhellhhhhheeeeelllbbcccdddeeefffggghhhiii");
+            Assert.assertEquals(new String(rawByteInput.readAll()), "helloend enden f");
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.BitMaskByteIndexer;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.ByteIndexerFactory;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+public class IgnoreCaseIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 各种忽略大小写的实现
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pattern = "content-type:".getBytes(StandardCharsets.UTF_8);
+        test(() -> new BitMaskByteIndexer(pattern, true));
+        test(() -> new KMPByteIndexer(pattern, false, true));
+        test(() -> new KMPByteIndexer(pattern, true, true));
+        test(() -> ByteIndexerFactory.createIgnoreCaseByteIndexer(pattern));
+    }
+
+    /// 测试 非字母字节不会被折叠 (如 '@' 与 '`', '[' 与 '{')
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "`A{[a@";
+        var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8))));
+        var indexer = ByteIndexerFactory.createIgnoreCaseByteIndexer("@A[".getBytes(StandardCharsets.UTF_8));
+        Assert.assertThrows(NoMatchFoundException.class, () -> byteInput.indexOf(indexer));
+        Assert.assertEquals(byteInput.indexOf(ByteIndexerFactory.createIgnoreCaseByteIndexer("[A@".getBytes(StandardCharsets.UTF_8))).index, 3);
+    }
+
+    private static void test(Supplier<ByteIndexer> indexerSupplier) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "Host: scx.dev\r\nContent-Type: text/html\r\nCONTENT-TYPE: a\r\ncontent-TYPE: b";
+        for (int i = 1; i < 40; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = indexerSupplier.get();
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "Host: scx.dev\r\n");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), " text/html\r\n");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), " a\r\n");
+            Assert.assertEquals(new String(byteInput.readAll()), " b");
+        }
+    }
+
+}
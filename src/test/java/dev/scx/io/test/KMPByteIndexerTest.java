@@ -0,0 +1,108 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static dev.scx.io.indexer.StatusByteMatchResult.Status.FULL_MATCH;
+
+public class KMPByteIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    /// 测试 DFA 模式 部分匹配跨多个 chunk (重复性很强的 boundary)
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var boundary = "\r\n--------boundary";
+        var body = "-".repeat(30) + "\r\n-------" + "\r\n--------bound" + "aaa";
+        var str = body + boundary + "--\r\n";
+        for (int i = 1; i < 80; i = i + 1) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new KMPByteIndexer(boundary.getBytes(StandardCharsets.UTF_8), true);
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), body);
+            Assert.assertEquals(new String(rawByteInput.readAll()), "--\r\n");
+        }
+    }
+
+    /// 测试 DFA 模式 忽略大小写 跨 chunk, 以及连续匹配
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "xxABAbabaBABABaByyAbAbAbAbzz";
+        for (int i = 1; i < 30; i = i + 1) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new KMPByteIndexer("ababab".getBytes(StandardCharsets.UTF_8), true, true);
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), "xx");
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), "");
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), "aByy");
+            Assert.assertThrows(NoMatchFoundException.class, () -> rawByteInput.readUntil(indexer));
+        }
+    }
+
+    /// 测试 DFA 模式 与 LPS 模式 在随机分块的随机数据上结果一致
+    @Test
+    public static void test3() {
+        var random = new Random(6);
+        for (int n = 0; n < 500; n = n + 1) {
+            var data = new byte[random.nextInt(300)];
+            for (int i = 0; i < data.length; i = i + 1) {
+                data[i] = (byte) "abAB".charAt(random.nextInt(4));
+            }
+            var pattern = new byte[1 + random.nextInt(6)];
+            for (int i = 0; i < pattern.length; i = i + 1) {
+                pattern[i] = (byte) "abAB".charAt(random.nextInt(4));
+            }
+            var ignoreCase = random.nextBoolean();
+            var chunkLength = 1 + random.nextInt(20);
+            Assert.assertEquals(scan(new KMPByteIndexer(pattern, true, ignoreCase), data, chunkLength), scan(new KMPByteIndexer(pattern, false, ignoreCase), data, chunkLength));
+        }
+    }
+
+    /// 测试 模式串过长时退回 LPS 模式, 结果仍然正确
+    @Test
+    public static void test4() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pattern = "-".repeat(299) + "x";
+        var str = "-".repeat(500) + "x" + "end";
+        for (int i = 1; i < 600; i = i + 97) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new KMPByteIndexer(pattern.getBytes(StandardCharsets.UTF_8), true);
+            Assert.assertEquals(new String(rawByteInput.readUntil(indexer)), "-".repeat(201));
+            Assert.assertEquals(new String(rawByteInput.readAll()), "end");
+        }
+    }
+
+    /// 按 chunkLength 分块扫描, 返回所有匹配的结束位置 (以 ',' 分隔)
+    private static String scan(KMPByteIndexer indexer, byte[] data, int chunkLength) {
+        var sb = new StringBuilder();
+        for (int start = 0; start < data.length; start = start + chunkLength) {
+            var end = Math.min(start + chunkLength, data.length);
+            var from = start;
+            while (from < end) {
+                var result = indexer.indexOf(ByteChunk.of(data, from, end));
+                if (result.status != FULL_MATCH) {
+                    break;
+                }
+                var matchEnd = from + result.index + result.matchedLength;
+                sb.append(matchEnd).append(',');
+                from = matchEnd;
+            }
+        }
+        return sb.toString();
+    }
+
+}
@@ -1,5 +1,6 @@
 package dev.scx.io.test;
 
+import dev.scx.io.MutableByteMatchResult;
 import dev.scx.io.exception.InputAlreadyClosedException;
 import dev.scx.io.exception.NoMatchFoundException;
 import dev.scx.io.exception.NoMoreDataException;
@@ -17,6 +18,8 @@ public class LineBreakIndexerTest {
 
     public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
         test1();
+        test2();
+        test3();
     }
 
     @Test
@@ -51,4 +54,61 @@ public class LineBreakIndexerTest {
 
     }
 
+    /// 测试 超过 8 字节的行 (覆盖 SWAR 快速路径) 以及 行内的单独 \r
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var line1 = "0123456789abcdefghijklmnopqrstuvwxyz";
+        var line2 = "abc\rdef\r\rghijklmnopqrstuvwxyz0123456789";
+        var str = line1 + "\r\n" + line2 + "\n" + line1 + "\r\n" + line1 + "\r\n";
+
+        for (int i = 1; i < 100; i = i + 1) {
+            var rawDataInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+
+            var indexer = new LineBreakByteIndexer();
+            Assert.assertEquals(new String(rawDataInput.readUntil(indexer)), line1);
+            Assert.assertEquals(new String(rawDataInput.readUntil(indexer)), line2);
+            Assert.assertEquals(new String(rawDataInput.readUntil(indexer)), line1);
+            Assert.assertEquals(new String(rawDataInput.readUntil((byte) '\n')), line1 + "\r");
+        }
+
+    }
+
+    /// 测试 复用 MutableByteMatchResult 的逐行扫描
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "abc\r\ndefgh\n\r\nxyz0123456789\r\n";
+
+        for (int i = 1; i < 40; i = i + 1) {
+            var rawDataInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+
+            var indexer = new LineBreakByteIndexer();
+            var result = new MutableByteMatchResult();
+
+            rawDataInput.indexOf(indexer, Long.MAX_VALUE, result);
+            Assert.assertEquals(result.index, 3L);
+            Assert.assertEquals(result.matchedLength, 2);
+            rawDataInput.skipFully(result.index + result.matchedLength);
+
+            rawDataInput.indexOf(indexer, Long.MAX_VALUE, result);
+            Assert.assertEquals(result.index, 5L);
+            Assert.assertEquals(result.matchedLength, 1);
+            rawDataInput.skipFully(result.index + result.matchedLength);
+
+            rawDataInput.indexOf(indexer, Long.MAX_VALUE, result);
+            Assert.assertEquals(result.index, 0L);
+            Assert.assertEquals(result.matchedLength, 2);
+            rawDataInput.skipFully(result.index + result.matchedLength);
+
+            rawDataInput.indexOf(indexer, Long.MAX_VALUE, result);
+            Assert.assertEquals(result.index, 13L);
+            Assert.assertEquals(result.matchedLength, 2);
+
+            // 与返回 ByteMatchResult 的版本一致
+            var byteMatchResult = rawDataInput.indexOf(indexer, Long.MAX_VALUE);
+            Assert.assertEquals(byteMatchResult.index, result.index);
+            Assert.assertEquals(byteMatchResult.matchedLength, result.matchedLength);
+        }
+
+    }
+
 }
@@ -2,6 +2,7 @@ package dev.scx.io.test;
 
 import dev.scx.io.ScxIO;
 import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.InvalidMarkException;
 import dev.scx.io.exception.NoMatchFoundException;
 import dev.scx.io.exception.NoMoreDataException;
 import dev.scx.io.exception.ScxInputException;
@@ -17,6 +18,8 @@ public class MarkTest {
     public static void main(String[] args) throws IOException, NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
         test1();
         test2();
+        test3();
+        test4();
     }
 
     @Test
@@ -34,11 +37,66 @@ public class MarkTest {
     public static void test2() throws IOException {
         var data = "你好".repeat(100) + "终结符";
         var s = ScxIO.byteInputToInputStream(new DefaultByteInput(new ByteArrayByteSupplier(data.getBytes())));
-        s.mark(0);
+        s.mark(200);
         var b1 = s.readNBytes(200);
         s.reset();
         byte[] b2 = s.readNBytes(200);
         Assert.assertEquals(b1, b2);
+        // 超过 readlimit 后 mark 失效
+        s.reset();
+        s.mark(10);
+        s.readNBytes(11);
+        Assert.assertThrows(IOException.class, s::reset);
+    }
+
+    /// 测试 跨越大量数据块的多个 mark, 以及 mark 之间的来回 reset
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var parts = new byte[1000][];
+        for (int i = 0; i < parts.length; i = i + 1) {
+            parts[i] = new byte[]{(byte) i, (byte) (i >> 8), 0};
+        }
+        var s = new DefaultByteInput(new ByteArrayByteSupplier(parts));
+        s.skipFully(5);
+        var mark1 = s.mark();
+        var b1 = s.readFully(1000);
+        var mark2 = s.mark();
+        var b2 = s.readFully(1000);
+        mark1.reset();
+        Assert.assertEquals(s.readFully(1000), b1);
+        Assert.assertEquals(s.readFully(1000), b2);
+        mark2.reset();
+        Assert.assertEquals(s.readFully(1000), b2);
+        mark1.reset();
+        s.skipFully(999);
+        Assert.assertEquals(s.read(), b1[999]);
+        Assert.assertEquals(s.readAll().length, 3000 - 5 - 1000);
+    }
+
+    /// 测试 readLimit 和 release
+    @Test
+    public static void test4() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var parts = new byte[100][];
+        for (int i = 0; i < parts.length; i = i + 1) {
+            parts[i] = new byte[]{(byte) i, 1, 2, 3};
+        }
+        var s = new DefaultByteInput(new ByteArrayByteSupplier(parts));
+        var mark1 = s.mark(8);
+        var mark2 = s.mark();
+        var b = s.readFully(8);
+        // 恰好读取 readLimit 个字节, 仍然有效
+        mark1.reset();
+        Assert.assertEquals(s.readFully(8), b);
+        s.read();
+        Assert.assertThrows(InvalidMarkException.class, mark1::reset);
+        // 失效后 不影响其他 mark
+        mark2.reset();
+        Assert.assertEquals(s.readFully(8), b);
+        // 释放后 无法 reset, 且 release 是幂等的
+        mark2.release();
+        mark2.release();
+        Assert.assertThrows(InvalidMarkException.class, mark2::reset);
+        Assert.assertEquals(s.readAll().length, 400 - 8);
     }
 
 }
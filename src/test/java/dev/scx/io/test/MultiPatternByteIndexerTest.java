@@ -0,0 +1,68 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.MultiPatternByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class MultiPatternByteIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "GET /index.html HTTP/1.1\r\nHost: scx.dev\r\n\r\nbody";
+        for (int i = 1; i < 50; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new MultiPatternByteIndexer(" ".getBytes(), "\r\n".getBytes(), "\r\n\r\n".getBytes());
+
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "GET");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 0);
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "/index.html");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 0);
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "HTTP/1.1");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 1);
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "Host:");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 0);
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "scx.dev");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 1);
+            // \r\n 先于 \r\n\r\n 结束, 以结束位置最早的为准
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 1);
+            Assert.assertEquals(new String(byteInput.readAll()), "body");
+        }
+    }
+
+    /// 测试 同一位置结束时 以最长的为准, 以及 互为后缀的模式串
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "xxabcdyyybcdzzcd";
+        for (int i = 1; i < 20; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new MultiPatternByteIndexer("cd".getBytes(), "abcd".getBytes(), "bcd".getBytes());
+
+            var result = byteInput.indexOf(indexer);
+            Assert.assertEquals(result.index, 2);
+            Assert.assertEquals(result.matchedLength, 4);
+            Assert.assertEquals(indexer.matchedPatternIndex(), 1);
+
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "xx");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "yyy");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 2);
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "zz");
+            Assert.assertEquals(indexer.matchedPatternIndex(), 0);
+        }
+    }
+
+}
@@ -0,0 +1,70 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ScxIO;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.file.ParallelFileSearcher;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.indexer.LineBreakByteIndexer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.concurrent.ForkJoinPool;
+
+public class ParallelFileSearcherTest {
+
+    public static void main(String[] args) throws IOException, InputAlreadyClosedException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 行偏移表 与顺序查找一致 (包括跨越段边界的 \r\n)
+    @Test
+    public static void test1() throws IOException, ScxInputException, InputAlreadyClosedException {
+        var tempFile = File.createTempFile("test1", ".tmp");
+        tempFile.deleteOnExit(); // JVM 退出时删除
+
+        var sb = new StringBuilder();
+        for (int i = 0; i < 2000; i = i + 1) {
+            sb.append("line").append(i).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        try (var raf = new RandomAccessFile(tempFile, "rw")) {
+            raf.write(sb.toString().getBytes());
+        }
+
+        var expected = new ArrayList<Long>();
+        try (var byteInput = ScxIO.createByteInput(tempFile)) {
+            byteInput.findAll(new LineBreakByteIndexer(), expected::add);
+        }
+        Assert.assertEquals(expected.size(), 2000);
+
+        for (var segmentLength : new long[]{1, 7, 100, 4096, ParallelFileSearcher.DEFAULT_SEGMENT_LENGTH}) {
+            var offsets = ParallelFileSearcher.findAll(tempFile, LineBreakByteIndexer::new, 2, segmentLength, ForkJoinPool.commonPool());
+            Assert.assertEquals(offsets.length, expected.size());
+            for (int i = 0; i < offsets.length; i = i + 1) {
+                Assert.assertEquals(offsets[i], (long) expected.get(i));
+            }
+        }
+    }
+
+    /// 测试 段首的匹配与上一段最后一个匹配重叠 (需要顺序修复)
+    @Test
+    public static void test2() throws IOException, ScxInputException {
+        var tempFile = File.createTempFile("test2", ".tmp");
+        tempFile.deleteOnExit(); // JVM 退出时删除
+
+        try (var raf = new RandomAccessFile(tempFile, "rw")) {
+            raf.write("aaaaaaa-aaa".getBytes());
+        }
+
+        for (int segmentLength = 1; segmentLength < 12; segmentLength = segmentLength + 1) {
+            var offsets = ParallelFileSearcher.findAll(tempFile, () -> new KMPByteIndexer("aa".getBytes()), 2, segmentLength, ForkJoinPool.commonPool());
+            Assert.assertEquals(offsets, new long[]{0, 2, 4, 8});
+        }
+    }
+
+}
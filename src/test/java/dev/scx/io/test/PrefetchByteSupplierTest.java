@@ -0,0 +1,145 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.ByteSupplier;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import dev.scx.io.supplier.PrefetchByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class PrefetchByteSupplierTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException, InterruptedException {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    /// 测试 数据顺序
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var sb = new StringBuilder();
+        for (int i = 0; i < 1000; i = i + 1) {
+            sb.append(i).append("\r\n");
+        }
+        var byteInput = new DefaultByteInput(new PrefetchByteSupplier(new InputStreamByteSupplier(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8)), 7), 2));
+        for (int i = 0; i < 1000; i = i + 1) {
+            Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), String.valueOf(i));
+        }
+        Assert.assertEquals(byteInput.readAll().length, 0);
+        byteInput.close();
+    }
+
+    /// 测试 上游异常在之前的数据之后 按顺序抛出
+    @Test
+    public static void test2() throws ScxInputException {
+        var count = new AtomicLong();
+        var supplier = new PrefetchByteSupplier(() -> {
+            if (count.getAndIncrement() < 2) {
+                return ByteChunk.of("ab".getBytes());
+            }
+            throw new ScxInputException("broken");
+        });
+        Assert.assertEquals(supplier.get().toString(), "ab");
+        Assert.assertEquals(supplier.get().toString(), "ab");
+        var e = Assert.expectThrows(ScxInputException.class, supplier::get);
+        Assert.assertEquals(e.getMessage(), "broken");
+        // 之后再次抛出同一异常
+        Assert.assertSame(Assert.expectThrows(ScxInputException.class, supplier::get), e);
+        supplier.close();
+    }
+
+    /// 测试 close 会停止后台线程 并关闭上游
+    @Test
+    public static void test3() throws ScxInputException, InterruptedException {
+        var count = new AtomicLong();
+        var upstreamClosed = new AtomicBoolean();
+        var supplier = new PrefetchByteSupplier(new ByteSupplier() {
+
+            @Override
+            public ByteChunk get() {
+                count.incrementAndGet();
+                return ByteChunk.of(new byte[16]);
+            }
+
+            @Override
+            public void close() {
+                upstreamClosed.set(true);
+            }
+
+        }, 2);
+        Assert.assertEquals(supplier.get().length, 16);
+        supplier.close();
+        Assert.assertTrue(upstreamClosed.get());
+        // 后台线程已经退出, 不再拉取
+        var pulled = count.get();
+        Thread.sleep(50);
+        Assert.assertEquals(count.get(), pulled);
+        // 队列中最多有 capacity 个数据块, 加上一个阻塞在 put 中的
+        Assert.assertTrue(pulled <= 4);
+    }
+
+    /// 测试 上游的 close 无法打断进行中的 get 时, close 在超时后报告错误, 而不是一直等待
+    @Test
+    public static void test4() throws ScxInputException, InterruptedException {
+        var inGet = new CountDownLatch(1);
+        var unblock = new CountDownLatch(1);
+        var released = new AtomicBoolean();
+        var supplier = new PrefetchByteSupplier(new ByteSupplier() {
+
+            @Override
+            public ByteChunk get() {
+                inGet.countDown();
+                // 忽略中断, 也不受 close 影响 (如 管道)
+                while (true) {
+                    try {
+                        unblock.await();
+                        return ByteChunk.of(new byte[16]);
+                    } catch (InterruptedException _) {
+                        // 忽略
+                    }
+                }
+            }
+
+            @Override
+            public void release(ByteChunk byteChunk) {
+                released.set(true);
+            }
+
+        }, 2, Thread.ofVirtual().factory(), Duration.ofMillis(50));
+        var consumer = Thread.ofVirtual().start(() -> {
+            try {
+                supplier.get();
+            } catch (ScxInputException _) {
+                // 忽略
+            }
+        });
+        // 后台线程已经进入上游的 get, close 必须等待它 (最多 closeTimeout) 并报告其未退出
+        inGet.await();
+        var start = System.nanoTime();
+        Assert.assertThrows(ScxInputException.class, supplier::close);
+        Assert.assertTrue(System.nanoTime() - start >= Duration.ofMillis(50).toNanos());
+        // close 唤醒了阻塞中的下游
+        consumer.join();
+        // 上游 get 返回后, 后台线程丢弃结果并退出
+        unblock.countDown();
+        for (int i = 0; i < 100 && !released.get(); i = i + 1) {
+            Thread.sleep(10);
+        }
+        Assert.assertTrue(released.get());
+    }
+
+}
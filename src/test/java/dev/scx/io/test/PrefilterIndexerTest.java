@@ -0,0 +1,58 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.BitMaskByteIndexer;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.KMPByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+public class PrefilterIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+    }
+
+    /// 测试 各种启用前置过滤的实现 (稀有字节为 '%', 位于模式串中间, 部分匹配跨越 chunk)
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pattern = "ab%cd".getBytes(StandardCharsets.UTF_8);
+        var str = "xxab%cxab%cdab%ab%cdabab%cd%";
+        test(() -> new KMPByteIndexer(pattern, false, false, true), str, new String[]{"xxab%cx", "ab%", "ab"}, "%");
+        test(() -> new KMPByteIndexer(pattern, true, false, true), str, new String[]{"xxab%cx", "ab%", "ab"}, "%");
+        test(() -> new BitMaskByteIndexer(pattern, false, true), str, new String[]{"xxab%cx", "ab%", "ab"}, "%");
+    }
+
+    /// 测试 忽略大小写时 稀有字母的大小写两种形式都会被扫描
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var pattern = "eXe".getBytes(StandardCharsets.UTF_8);
+        var str = "eee.exe.EXE.eXexe";
+        test(() -> new KMPByteIndexer(pattern, false, true, true), str, new String[]{"eee.", ".", "."}, "xe");
+        test(() -> new KMPByteIndexer(pattern, true, true, true), str, new String[]{"eee.", ".", "."}, "xe");
+        test(() -> new BitMaskByteIndexer(pattern, true, true), str, new String[]{"eee.", ".", "."}, "xe");
+    }
+
+    private static void test(Supplier<ByteIndexer> indexerSupplier, String str, String[] expected, String rest) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        for (int i = 1; i < 30; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = indexerSupplier.get();
+            for (var e : expected) {
+                Assert.assertEquals(new String(byteInput.readUntil(indexer)), e);
+            }
+            Assert.assertThrows(NoMatchFoundException.class, () -> byteInput.indexOf(indexer));
+            Assert.assertEquals(new String(byteInput.readAll()), rest);
+        }
+    }
+
+}
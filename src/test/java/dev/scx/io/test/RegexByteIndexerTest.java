@@ -0,0 +1,88 @@
+package dev.scx.io.test;
+
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.RegexByteIndexer;
+import dev.scx.io.input.DefaultByteInput;
+import dev.scx.io.supplier.BoundaryByteSupplier;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+public class RegexByteIndexerTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    /// 测试 可变长度的分隔符
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "header1\r\n\r\nheader2\n\nheader3\r\n\nheader4\r\nbody";
+        for (int i = 1; i < 50; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new RegexByteIndexer("\\r?\\n\\r?\\n");
+
+            var result = byteInput.indexOf(indexer);
+            Assert.assertEquals(result.index, 7);
+            Assert.assertEquals(result.matchedLength, 4);
+
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "header1");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "header2");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "header3");
+            Assert.assertThrows(NoMatchFoundException.class, () -> byteInput.readUntil(indexer));
+        }
+    }
+
+    /// 测试 字节类与量词, 以及起点位于之前 chunk 的匹配
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "abc12;def;345678;x9;";
+        for (int i = 1; i < 30; i = i + 1) {
+            var byteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var indexer = new RegexByteIndexer("[0-9]+;");
+
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "abc");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "def;");
+            Assert.assertEquals(new String(byteInput.readUntil(indexer)), "x");
+            Assert.assertEquals(byteInput.readAll().length, 0);
+        }
+    }
+
+    /// 测试 配合 BoundaryByteSupplier 使用
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var str = "part1 data--==AB==--part2";
+        for (int i = 1; i < 30; i = i + 1) {
+            var rawByteInput = new DefaultByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i));
+            var byteInput = new DefaultByteInput(new BoundaryByteSupplier(rawByteInput, new RegexByteIndexer("--=+[A-Z]+=+--"), false));
+            Assert.assertEquals(new String(byteInput.readAll()), "part1 data");
+            Assert.assertEquals(new String(rawByteInput.readAll()), "part2");
+        }
+    }
+
+    /// 测试 非法表达式
+    @Test
+    public static void test4() {
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer(""));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("a*"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("a|"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("(ab"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("a{3,2}"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("^a"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("a+?"));
+        // 嵌套量词展开出过多状态
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("(a{1000}){1000}"));
+        Assert.assertThrows(IllegalArgumentException.class, () -> new RegexByteIndexer("((ab){100}){100}"));
+        new RegexByteIndexer("(a{100}){90}");
+    }
+
+}
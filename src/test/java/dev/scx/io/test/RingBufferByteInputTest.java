@@ -0,0 +1,128 @@
+package dev.scx.io.test;
+
+import dev.scx.io.ByteChunk;
+import dev.scx.io.consumer.FindAllByteConsumer;
+import dev.scx.io.exception.InputAlreadyClosedException;
+import dev.scx.io.exception.InvalidMarkException;
+import dev.scx.io.exception.NoMatchFoundException;
+import dev.scx.io.exception.NoMoreDataException;
+import dev.scx.io.exception.ScxInputException;
+import dev.scx.io.indexer.ByteIndexer;
+import dev.scx.io.indexer.SingleByteIndexer;
+import dev.scx.io.indexer.StatusByteMatchResult;
+import dev.scx.io.input.RingBufferByteInput;
+import dev.scx.io.supplier.InputStreamByteSupplier;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public class RingBufferByteInputTest {
+
+    public static void main(String[] args) throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException, InvalidMarkException {
+        test1();
+        test2();
+        test3();
+        test4();
+    }
+
+    /// 测试 数据跨越环形边界时的 读取 和 查找
+    @Test
+    public static void test1() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "hello\r\nworld\r\n--boundary\r\nend";
+        for (int i = 1; i < 10; i = i + 1) {
+            var byteInput = new RingBufferByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), i), 32);
+            Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "hello");
+            Assert.assertEquals(new String(byteInput.readUntil("\r\n".getBytes())), "world");
+            Assert.assertEquals(byteInput.indexOf("\r\n".getBytes()).index, 10);
+            Assert.assertEquals(new String(byteInput.readFully(10)), "--boundary");
+            Assert.assertEquals(byteInput.skip(2), 2);
+            Assert.assertEquals(new String(byteInput.readAll()), "end");
+            // 查找需要保留的数据 不超过容量时 缓冲区不需要扩容
+            Assert.assertEquals(byteInput.capacity(), 32);
+        }
+    }
+
+    /// 测试 mark 保留的数据超过容量时扩容
+    @Test
+    public static void test2() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException, InvalidMarkException {
+        var str = "0123456789abcdefghijklmnopqrstuvwxyz";
+        var byteInput = new RingBufferByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 3), 4);
+        byteInput.skip(2);
+        var mark = byteInput.mark();
+        Assert.assertEquals(new String(byteInput.readFully(20)), "23456789abcdefghijkl");
+        mark.reset();
+        Assert.assertEquals(new String(byteInput.readFully(3)), "234");
+        Assert.assertTrue(byteInput.capacity() >= 20);
+        mark.release();
+        Assert.assertEquals(new String(byteInput.readAll()), "56789abcdefghijklmnopqrstuvwxyz");
+    }
+
+    /// 测试 交给 retaining consumer 的数据块 在之后的读取中不会被覆写
+    @Test
+    public static void test3() throws NoMoreDataException, InputAlreadyClosedException, ScxInputException {
+        var str = "abcdefghijklmnopqrstuvwxyz";
+        var byteInput = new RingBufferByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 2), 4);
+        var chunks = new ArrayList<ByteChunk>();
+        byteInput.readFully(chunks::add, 4);
+        Assert.assertEquals(new String(byteInput.readAll()), "efghijklmnopqrstuvwxyz");
+        var sb = new StringBuilder();
+        for (var chunk : chunks) {
+            sb.append(new String(chunk.bytes, chunk.start, chunk.length));
+        }
+        Assert.assertEquals(sb.toString(), "abcd");
+    }
+
+    /// 测试 交给 retaining indexer 的数据块 在之后的读取中不会被覆写 (内置 indexer 不保留, 不会触发)
+    @Test
+    public static void test4() throws NoMoreDataException, InputAlreadyClosedException, NoMatchFoundException, ScxInputException {
+        var str = "abcdefghijklmnopqrstuvwxyz";
+        var byteInput = new RingBufferByteInput(new InputStreamByteSupplier(new ByteArrayInputStream(str.getBytes(StandardCharsets.UTF_8)), 2), 4);
+        var indexer = new RetainingByteIndexer(new SingleByteIndexer((byte) 'd'));
+        Assert.assertEquals(byteInput.indexOf(indexer).index, 3L);
+        Assert.assertEquals(byteInput.indexCursor(indexer).indexOf(Long.MAX_VALUE).index, 3L);
+        Assert.assertEquals(new String(byteInput.readAll()), str);
+        var sb = new StringBuilder();
+        for (var chunk : indexer.chunks) {
+            sb.append(new String(chunk.bytes, chunk.start, chunk.length));
+        }
+        Assert.assertEquals(sb.toString(), "abcdabcd");
+        Assert.assertTrue(new FindAllByteConsumer(indexer, _ -> {}).retainsChunks());
+        Assert.assertFalse(new FindAllByteConsumer(new SingleByteIndexer((byte) 'd'), _ -> {}).retainsChunks());
+    }
+
+    /// 保存每次查找的数据块视图
+    private static final class RetainingByteIndexer implements ByteIndexer {
+
+        private final ByteIndexer indexer;
+        private final List<ByteChunk> chunks;
+
+        private RetainingByteIndexer(ByteIndexer indexer) {
+            this.indexer = indexer;
+            this.chunks = new ArrayList<>();
+        }
+
+        @Override
+        public StatusByteMatchResult indexOf(ByteChunk chunk) {
+            var result = indexer.indexOf(chunk);
+            // 只保存实际扫描过的部分
+            chunks.add(result.status == StatusByteMatchResult.Status.FULL_MATCH ? chunk.subChunk(0, result.index + result.matchedLength) : chunk);
+            return result;
+        }
+
+        @Override
+        public boolean isEmptyPattern() {
+            return indexer.isEmptyPattern();
+        }
+
+        @Override
+        public void reset() {
+            indexer.reset();
+        }
+
+    }
+
+}